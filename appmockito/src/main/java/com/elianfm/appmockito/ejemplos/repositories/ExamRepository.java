@@ -1,6 +1,8 @@
 package com.elianfm.appmockito.ejemplos.repositories;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,33 @@ import com.elianfm.appmockito.ejemplos.models.Exam;
 public interface ExamRepository {
     List<Exam> findAll();
     Exam save(Exam exam);
+
+    // Recorre los examenes de a uno, sin cargarlos todos en una lista. El
+    // stream puede tener recursos abiertos (por ejemplo un cursor de la base
+    // de datos), quien lo pide lo debe cerrar: try (Stream<Exam> exams = streamAll()) { ... }
+    // Por defecto recorre findAll().
+    default Stream<Exam> streamAll() {
+        return findAll().stream();
+    }
+
+    // Devuelve la página "page" (desde 0) con hasta "size" examenes. Una
+    // página vacía indica que no hay más examenes. Por defecto la corta de findAll().
+    default List<Exam> findPage(int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Página o tamaño de página inválido");
+        }
+        try (Stream<Exam> exams = streamAll()) {
+            return exams.skip((long) page * size).limit(size).toList();
+        }
+    }
+
+    // Busca un examen por nombre sin importar mayúsculas. Por defecto recorre
+    // streamAll() y se detiene en el primero que coincide, las
+    // implementaciones pueden usar un índice (ver ExamRepositoryImpl)
+    default Optional<Exam> findByName(String name) {
+        try (Stream<Exam> exams = streamAll()) {
+            return exams.filter(exam -> exam.getName().equalsIgnoreCase(name))
+                    .findFirst();
+        }
+    }
 }
@@ -1,21 +1,58 @@
 package com.elianfm.appmockito.ejemplos.repositories;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-
-import org.springframework.stereotype.Repository;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import com.elianfm.appmockito.ejemplos.Data;
 import com.elianfm.appmockito.ejemplos.models.Exam;
 
 public class ExamRepositoryImpl implements ExamRepository {
 
+    // Los examenes del repositorio, empieza con los de Data.DATA y save()
+    // agrega al final o reemplaza en su lugar (nunca se borra, las posiciones
+    // no cambian). findAll y el índice salen de esta lista. Se accede con el
+    // lock del repositorio.
+    private final List<Exam> exams = new ArrayList<>();
+    private final Map<Long, Integer> positionsById = new HashMap<>();
+
+    // Índice de los examenes por nombre en minúsculas, así findByName no
+    // tiene que recorrer todos los examenes. Se actualiza en save(), sin
+    // recorrer la lista.
+    private final Map<String, Exam> examsByName = new ConcurrentHashMap<>();
+
+    // Con qué nombre está indexado cada examen, para sacar el nombre viejo
+    // cuando se guarda el examen con otro nombre
+    private final Map<Long, String> namesById = new HashMap<>();
+
+    // Posiciones de los nombres que tienen más de un examen. El índice apunta
+    // al de menor posición, igual que findAll().stream().findFirst()
+    private final Map<String, TreeSet<Integer>> repeatedNames = new HashMap<>();
+
+    private long nextId = 1;
+
+    public ExamRepositoryImpl() {
+        for (Exam exam : Data.DATA) {
+            store(exam);
+        }
+    }
+
     @Override
     public List<Exam> findAll() {
         // return Collections.emptyList(); // Simulamos una base de datos vacía 
         // (NO recomdable hacer esto solo para pruebas)
         System.out.println("Buscando todos los examenes");
-        return Data.DATA;
+        synchronized (this) {
+            return List.copyOf(exams);
+        }
 
         // Al realizar pruebas unitarias, el codigo de anterior funcionara, pero si
         // queremos realizar pruebas con otros datos, podemos usar Mockito para
@@ -27,10 +64,130 @@ public class ExamRepositoryImpl implements ExamRepository {
         // @InjectMocks para inyectar el mock en la clase ExamenService.
     }
 
+    // Los datos están en memoria, no hay nada que cerrar; igual se debe usar
+    // con try-with-resources como indica ExamRepository.streamAll(). Recorre
+    // los examenes que había al empezar sin copiar la lista: las posiciones
+    // no cambian y cada examen se lee con el lock.
+    @Override
+    public Stream<Exam> streamAll() {
+        System.out.println("Recorriendo los examenes");
+        int size;
+        synchronized (this) {
+            size = exams.size();
+        }
+        return IntStream.range(0, size).mapToObj(this::examAt);
+    }
+
+    private synchronized Exam examAt(int position) {
+        return exams.get(position);
+    }
+
+    @Override
+    public List<Exam> findPage(int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Página o tamaño de página inválido");
+        }
+        System.out.println("Buscando examenes, página " + page + " de " + size);
+        synchronized (this) {
+            long from = (long) page * size;
+            if (from >= exams.size()) {
+                return List.of();
+            }
+            int to = (int) Math.min(from + size, exams.size());
+            return List.copyOf(exams.subList((int) from, to));
+        }
+    }
+
     @Override
-    public Exam save(Exam exam) {
+    public Optional<Exam> findByName(String name) {
+        System.out.println("Buscando examen por nombre: " + name);
+        if (name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(examsByName.get(normalize(name)));
+    }
+
+    // Un examen sin id es nuevo y recibe el siguiente id; uno con id
+    // reemplaza al examen guardado con ese id o se agrega al final
+    @Override
+    public synchronized Exam save(Exam exam) {
         System.out.println("Guardando examen: " + exam);
-        return Data.DATA.get(0);
+        store(exam);
+        return exam;
+    }
+
+    private void store(Exam exam) {
+        if (exam.getId() == null) {
+            exam.setId(nextId);
+        }
+        Long id = exam.getId();
+        nextId = Math.max(nextId, id + 1);
+        String name = key(exam.getName());
+
+        Integer position = positionsById.get(id);
+        if (position == null) {
+            position = exams.size();
+            exams.add(exam);
+            positionsById.put(id, position);
+            index(name, position);
+        } else {
+            exams.set(position, exam);
+            String oldName = namesById.get(id);
+            if (Objects.equals(oldName, name)) {
+                // mismo nombre: solo cambia el examen si es el que está en el índice
+                if (name != null && firstPosition(name) == position) {
+                    examsByName.put(name, exam);
+                }
+            } else {
+                unindex(oldName, position);
+                index(name, position);
+            }
+        }
+        namesById.put(id, name);
+    }
+
+    private void index(String name, int position) {
+        if (name == null) {
+            return;
+        }
+        Exam first = examsByName.get(name);
+        if (first == null) {
+            examsByName.put(name, exams.get(position));
+            return;
+        }
+        TreeSet<Integer> positions = repeatedNames.computeIfAbsent(name,
+                repeated -> new TreeSet<>(List.of(positionsById.get(first.getId()))));
+        positions.add(position);
+        examsByName.put(name, exams.get(positions.first()));
+    }
+
+    private void unindex(String name, int position) {
+        if (name == null) {
+            return;
+        }
+        TreeSet<Integer> positions = repeatedNames.get(name);
+        if (positions == null) {
+            examsByName.remove(name);
+            return;
+        }
+        positions.remove(position);
+        examsByName.put(name, exams.get(positions.first()));
+        if (positions.size() == 1) {
+            repeatedNames.remove(name);
+        }
+    }
+
+    private int firstPosition(String name) {
+        TreeSet<Integer> positions = repeatedNames.get(name);
+        return positions != null ? positions.first() : positionsById.get(examsByName.get(name).getId());
+    }
+
+    private static String key(String name) {
+        return name == null ? null : normalize(name);
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
     }
 
 }
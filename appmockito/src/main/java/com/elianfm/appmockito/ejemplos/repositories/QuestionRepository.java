@@ -1,8 +1,20 @@
 package com.elianfm.appmockito.ejemplos.repositories;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public interface QuestionRepository {
     List<String> findQuestionsByExamId(Long id);
     void saveQuestions(List<String> question);
+
+    // Preguntas de varios examenes de una vez, por id de examen. Por defecto
+    // hace una búsqueda por examen, las implementaciones deberían hacer una sola
+    // (ver QuestionRepositoryImpl)
+    default Map<Long, List<String>> findQuestionsByExamIds(Collection<Long> ids) {
+        Map<Long, List<String>> questions = new LinkedHashMap<>();
+        ids.forEach(id -> questions.put(id, findQuestionsByExamId(id)));
+        return questions;
+    }
 }
@@ -1,6 +1,9 @@
 package com.elianfm.appmockito.ejemplos.repositories;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.elianfm.appmockito.ejemplos.Data;
 
@@ -12,6 +15,16 @@ public class QuestionRepositoryImpl implements QuestionRepository {
         return Data.QUESTIONS;
     }
 
+    @Override
+    public Map<Long, List<String>> findQuestionsByExamIds(Collection<Long> ids) {
+        // Una sola búsqueda para todos los examenes (en una base de datos sería
+        // un WHERE exam_id IN (...))
+        System.out.println("Buscando preguntas por ids de examenes: " + ids);
+        Map<Long, List<String>> questions = new LinkedHashMap<>();
+        ids.forEach(id -> questions.put(id, Data.QUESTIONS));
+        return questions;
+    }
+
     @Override
     public void saveQuestions(List<String> question) {
         System.out.println("Guardando preguntas: " + question);
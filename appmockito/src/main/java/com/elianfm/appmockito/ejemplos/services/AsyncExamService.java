@@ -0,0 +1,16 @@
+package com.elianfm.appmockito.ejemplos.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.elianfm.appmockito.ejemplos.models.Exam;
+
+// Variante asíncrona de ExamService: cada método devuelve enseguida un
+// CompletableFuture y las búsquedas en los repositorios se hacen en otro hilo
+public interface AsyncExamService {
+     CompletableFuture<Optional<Exam>> findExamByNameAsync(String name);
+     CompletableFuture<Exam> findExamByNameWithQuestionsAsync(String name);
+     CompletableFuture<List<Exam>> findExamsByNamesWithQuestionsAsync(Collection<String> names);
+}
@@ -0,0 +1,124 @@
+package com.elianfm.appmockito.ejemplos.services;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.elianfm.appmockito.ejemplos.models.Exam;
+import com.elianfm.appmockito.ejemplos.repositories.ExamRepository;
+import com.elianfm.appmockito.ejemplos.repositories.QuestionRepository;
+
+// Implementación de AsyncExamService sobre un ExamService: las llamadas al
+// delegado corren en el executor indicado, por defecto uno con hilos virtuales
+// (Java 21 o más, se buscan por reflexión porque el proyecto compila con Java
+// 17) o, si no hay, un pool de hilos que crece según haga falta.
+//
+// Las preguntas de un examen dependen de su id, así que se buscan después del
+// examen, pero el hilo que llama queda libre mientras tanto. En los lotes los
+// examenes se buscan todos a la vez, una búsqueda por nombre, y después el
+// delegado carga las preguntas de todos con loadQuestions.
+//
+// Si una operación no termina dentro del timeout el future se completa con
+// TimeoutException y se cancelan las búsquedas que todavía no empezaron. Una
+// búsqueda que ya está corriendo no se interrumpe (CompletableFuture no puede
+// hacerlo): sigue hasta terminar en el executor y su resultado se descarta.
+public class AsyncExamServiceImpl implements AsyncExamService, AutoCloseable {
+
+    private final ExamService delegate;
+    private final Executor executor;
+    private final Duration timeout;
+    // solo se cierra el executor si lo creó este servicio
+    private final ExecutorService ownExecutor;
+
+    public AsyncExamServiceImpl(ExamRepository examRepository, QuestionRepository questionRepository,
+            Duration timeout) {
+        this(new ExamServiceImpl(examRepository, questionRepository), timeout);
+    }
+
+    public AsyncExamServiceImpl(ExamRepository examRepository, QuestionRepository questionRepository,
+            Executor executor, Duration timeout) {
+        this(new ExamServiceImpl(examRepository, questionRepository), executor, timeout);
+    }
+
+    public AsyncExamServiceImpl(ExamService delegate, Duration timeout) {
+        this(delegate, defaultExecutor(), timeout, true);
+    }
+
+    public AsyncExamServiceImpl(ExamService delegate, Executor executor, Duration timeout) {
+        this(delegate, executor, timeout, false);
+    }
+
+    private AsyncExamServiceImpl(ExamService delegate, Executor executor, Duration timeout, boolean ownsExecutor) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.timeout = timeout;
+        this.ownExecutor = ownsExecutor ? (ExecutorService) executor : null;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Exam>> findExamByNameAsync(String name) {
+        return async(() -> delegate.findExamByName(name));
+    }
+
+    @Override
+    public CompletableFuture<Exam> findExamByNameWithQuestionsAsync(String name) {
+        return async(() -> delegate.findExamByNameWithQuestions(name));
+    }
+
+    @Override
+    public CompletableFuture<List<Exam>> findExamsByNamesWithQuestionsAsync(Collection<String> names) {
+        List<CompletableFuture<Optional<Exam>>> lookups = names.stream()
+                .map(name -> CompletableFuture.supplyAsync(() -> delegate.findExamByName(name), executor))
+                .toList();
+
+        CompletableFuture<List<Exam>> exams = CompletableFuture
+                .allOf(lookups.toArray(new CompletableFuture<?>[0]))
+                .thenApplyAsync(ignored -> delegate.loadQuestions(lookups.stream()
+                        .map(CompletableFuture::join)
+                        .flatMap(Optional::stream)
+                        .toList()), executor);
+        withTimeout(exams).whenComplete((result, error) -> {
+            if (error != null) {
+                lookups.forEach(lookup -> lookup.cancel(false));
+            }
+        });
+        return exams;
+    }
+
+    @Override
+    public void close() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+        }
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> call) {
+        return withTimeout(CompletableFuture.supplyAsync(call, executor));
+    }
+
+    // El mismo future vence: si la tarea todavía no empezó ya no corre
+    private <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future) {
+        return future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    static ExecutorService defaultExecutor() {
+        try {
+            Method virtualThreads = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtualThreads.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "exam-service");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.elianfm.appmockito.ejemplos.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.elianfm.appmockito.ejemplos.models.Exam;
+
+// Decorador de ExamService que guarda en memoria los examenes con sus preguntas,
+// así los examenes más pedidos no van al repositorio en cada llamada.
+//
+// - Tamaño máximo con desalojo LRU (LinkedHashMap en orden de acceso).
+// - Cada examen vence después de un tiempo (TTL) y se vuelve a buscar.
+// - save() invalida el examen guardado, también con el nombre que tenía antes
+//   si se lo renombra (se busca por id).
+// - Si muchos hilos piden el mismo examen y no está (o venció), solo uno lo
+//   busca y los demás esperan ese resultado (protección contra estampidas).
+//
+// Los examenes devueltos son compartidos entre todos los que los piden, no se
+// deben modificar.
+public class CachingExamService implements ExamService {
+
+    public record CacheStats(long hits, long misses, long evictions) {
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Exam> exam = new CompletableFuture<>();
+        // vence recién cuando se terminó de buscar; loaded se escribe después
+        // de expiresAt, quien lo ve en true ve el vencimiento
+        long expiresAt;
+        volatile boolean loaded;
+        // id del examen encontrado, para invalidarlo si se renombra
+        Long id;
+    }
+
+    private final ExamService delegate;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Se accede siempre con el lock del propio mapa, las búsquedas en el
+    // repositorio se hacen fuera del lock
+    private final Map<String, Entry> entries;
+
+    // Clave con la que está guardado cada examen, protegido por el lock de entries
+    private final Map<Long, String> keysById = new HashMap<>();
+
+    public CachingExamService(ExamService delegate, int maximumSize, Duration ttl) {
+        this(delegate, maximumSize, ttl, System::nanoTime);
+    }
+
+    // nanoTime permite controlar el paso del tiempo en las pruebas
+    public CachingExamService(ExamService delegate, int maximumSize, Duration ttl, LongSupplier nanoTime) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("El tamaño máximo debe ser al menos 1");
+        }
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maximumSize) {
+                    evictions.increment();
+                    forget(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Optional<Exam> findExamByName(String name) {
+        return delegate.findExamByName(name);
+    }
+
+    @Override
+    public Exam findExamByNameWithQuestions(String name) {
+        if (name == null) {
+            return delegate.findExamByNameWithQuestions(name);
+        }
+        String key = key(name);
+        Entry entry;
+        boolean load = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.loaded && entry.expiresAt - nanoTime.getAsLong() <= 0) {
+                entry = null;
+            }
+            if (entry == null) {
+                // el primero que no lo encuentra deja una entrada en búsqueda,
+                // los demás la encuentran y esperan su resultado
+                entry = new Entry();
+                entries.put(key, entry);
+                load = true;
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+        }
+
+        if (load) {
+            try {
+                Exam exam = delegate.findExamByNameWithQuestions(name);
+                entry.expiresAt = nanoTime.getAsLong() + ttlNanos;
+                entry.loaded = true;
+                if (exam != null && exam.getId() != null) {
+                    remember(key, entry, exam.getId());
+                }
+                entry.exam.complete(exam);
+            } catch (Throwable e) {
+                // los errores (también los Error) no se guardan y se entregan a
+                // los que esperan, el próximo pedido lo vuelve a intentar
+                remove(key, entry);
+                entry.exam.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return entry.exam.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Los lotes van directo al servicio, que ya los resuelve con una sola búsqueda de preguntas
+    @Override
+    public List<Exam> findExamsByNamesWithQuestions(Collection<String> names) {
+        return delegate.findExamsByNamesWithQuestions(names);
+    }
+
+    @Override
+    public List<Exam> loadQuestions(List<Exam> exams) {
+        return delegate.loadQuestions(exams);
+    }
+
+    @Override
+    public Exam save(Exam exam) {
+        Exam saved = delegate.save(exam);
+        invalidate(exam.getName());
+        if (saved != null && saved != exam) {
+            invalidate(saved.getName());
+        }
+        // si se renombró, la entrada con el nombre viejo se encuentra por id
+        invalidateId(exam.getId());
+        if (saved != null) {
+            invalidateId(saved.getId());
+        }
+        return saved;
+    }
+
+    public void invalidate(String name) {
+        if (name != null) {
+            String key = key(name);
+            synchronized (entries) {
+                Entry entry = entries.remove(key);
+                if (entry != null) {
+                    forget(key, entry);
+                }
+            }
+        }
+    }
+
+    private void invalidateId(Long id) {
+        if (id != null) {
+            synchronized (entries) {
+                String key = keysById.remove(id);
+                if (key != null) {
+                    entries.remove(key);
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            keysById.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        synchronized (entries) {
+            if (entries.remove(key, entry)) {
+                forget(key, entry);
+            }
+        }
+    }
+
+    // Anota con qué clave quedó el examen, si la entrada sigue en la cache
+    private void remember(String key, Entry entry, Long id) {
+        synchronized (entries) {
+            entry.id = id;
+            if (entries.get(key) == entry) {
+                keysById.put(id, key);
+            }
+        }
+    }
+
+    // Se llama con el lock de entries al sacar una entrada
+    private void forget(String key, Entry entry) {
+        if (entry.id != null) {
+            keysById.remove(entry.id, key);
+        }
+    }
+
+    // Los nombres no distinguen mayúsculas, igual que ExamRepository.findByName
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
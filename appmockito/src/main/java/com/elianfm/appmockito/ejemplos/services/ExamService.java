@@ -1,5 +1,7 @@
 package com.elianfm.appmockito.ejemplos.services;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.stereotype.Service;
@@ -9,5 +11,9 @@ import com.elianfm.appmockito.ejemplos.models.Exam;
 public interface ExamService {
      Optional<Exam> findExamByName(String name);
      Exam findExamByNameWithQuestions(String name);
+     List<Exam> findExamsByNamesWithQuestions(Collection<String> names);
+     // Carga las preguntas de examenes ya encontrados, con una sola búsqueda
+     // para todos, y devuelve los mismos examenes
+     List<Exam> loadQuestions(List<Exam> exams);
      Exam save(Exam exam);
 }
@@ -1,7 +1,12 @@
 package com.elianfm.appmockito.ejemplos.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -22,9 +27,9 @@ public class ExamServiceImpl implements ExamService {
 
     @Override
     public Optional<Exam> findExamByName(String name) {
-        return examRepository.findAll().stream()
-                .filter(examen -> examen.getName().equalsIgnoreCase(name))
-                .findFirst();
+        // El repositorio busca por nombre con su índice o recorriendo streamAll()
+        // hasta encontrarlo, nunca trae todos los examenes en una lista
+        return examRepository.findByName(name);
     }
 
     @Override
@@ -44,6 +49,37 @@ public class ExamServiceImpl implements ExamService {
         return exam;
     }
 
+    // Busca varios examenes y carga las preguntas de todos con una sola llamada
+    // al repositorio de preguntas, en lugar de una por examen (problema N+1).
+    // Los nombres que no existen se omiten.
+    @Override
+    public List<Exam> findExamsByNamesWithQuestions(Collection<String> names) {
+        List<Exam> exams = new ArrayList<>();
+        for (String name : names) {
+            findExamByName(name).ifPresent(exams::add);
+        }
+        return loadQuestions(exams);
+    }
+
+    @Override
+    public List<Exam> loadQuestions(List<Exam> exams) {
+        if (exams.isEmpty()) {
+            return exams;
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Exam exam : exams) {
+            if (exam.getId() != null) {
+                ids.add(exam.getId());
+            }
+        }
+        Map<Long, List<String>> questions = questionRepository.findQuestionsByExamIds(ids);
+        for (Exam exam : exams) {
+            exam.setQuestions(questions.getOrDefault(exam.getId(), List.of()));
+        }
+        return exams;
+    }
+
     @Override
     public Exam save(Exam exam) {
         if(!exam.getQuestions().isEmpty()) {
@@ -0,0 +1,132 @@
+package com.elianfm.appmockito.examples.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.elianfm.appmockito.ejemplos.Data;
+import com.elianfm.appmockito.ejemplos.models.Exam;
+import com.elianfm.appmockito.ejemplos.repositories.ExamRepository;
+import com.elianfm.appmockito.ejemplos.repositories.ExamRepositoryImpl;
+
+public class ExamRepositoryImplTest {
+
+    @Test
+    void testFindByNameIgnoraMayusculas() {
+        ExamRepository repository = new ExamRepositoryImpl();
+
+        Optional<Exam> exam = repository.findByName("mateMATICAS");
+
+        assertTrue(exam.isPresent(), "El examen debe estar presente");
+        assertSame(Data.DATA.get(0), exam.orElseThrow(), "Debe ser el examen de Matematicas");
+        assertFalse(repository.findByName("Matematicas II").isPresent(), "El examen no debe existir");
+        assertFalse(repository.findByName(null).isPresent(), "Sin nombre no hay examen");
+    }
+
+    @Test
+    void testSaveActualizaElIndice() {
+        ExamRepository repository = new ExamRepositoryImpl();
+        Exam exam = new Exam(null, "Robótica", List.of());
+
+        repository.save(exam);
+
+        assertSame(exam, repository.findByName("ROBÓTICA").orElseThrow(), "El examen guardado se debe encontrar");
+    }
+
+    @Test
+    void testSaveConOtroNombreSacaElNombreViejo() {
+        ExamRepository repository = new ExamRepositoryImpl();
+        Exam exam = repository.save(new Exam(null, "Robótica", List.of()));
+
+        repository.save(new Exam(exam.getId(), "Electrónica", List.of()));
+
+        assertFalse(repository.findByName("Robótica").isPresent(), "El nombre viejo no se debe encontrar");
+        assertEquals("Electrónica", repository.findByName("electrónica").orElseThrow().getName());
+        assertEquals(1, repository.findAll().stream().filter(e -> exam.getId().equals(e.getId())).count(),
+                "Guardar de nuevo reemplaza el examen");
+    }
+
+    // Con nombres repetidos el índice apunta al primero de findAll, también
+    // después de renombrarlos
+    @Test
+    void testNombresRepetidos() {
+        ExamRepository repository = new ExamRepositoryImpl();
+        Exam first = repository.save(new Exam(null, "Robótica", List.of()));
+        Exam second = repository.save(new Exam(null, "robótica", List.of()));
+
+        assertSame(first, repository.findByName("Robótica").orElseThrow());
+
+        repository.save(new Exam(first.getId(), "Electrónica", List.of()));
+        assertSame(second, repository.findByName("Robótica").orElseThrow());
+
+        Exam back = repository.save(new Exam(first.getId(), "Robótica", List.of()));
+        assertSame(back, repository.findByName("Robótica").orElseThrow());
+        assertFalse(repository.findByName("Electrónica").isPresent(), "El nombre viejo no se debe encontrar");
+    }
+
+    // findAll devuelve los mismos examenes que encuentra el índice
+    @Test
+    void testSaveAgregaAFindAll() {
+        ExamRepository repository = new ExamRepositoryImpl();
+        Exam exam = repository.save(new Exam(null, "Robótica", List.of()));
+
+        assertEquals(16L, exam.getId(), "El examen nuevo recibe el siguiente id");
+        assertEquals(Data.DATA.size() + 1, repository.findAll().size());
+        assertSame(exam, repository.findAll().get(Data.DATA.size()));
+        assertEquals(Data.DATA.size(), new ExamRepositoryImpl().findAll().size(),
+                "Cada repositorio tiene sus propios examenes");
+    }
+
+    // Las implementaciones que no tienen índice usan el método por defecto de
+    // la interfaz, que recorre streamAll()
+    @Test
+    void testFindByNamePorDefectoRecorreFindAll() {
+        ExamRepository repository = mock(ExamRepository.class);
+        when(repository.findAll()).thenReturn(Data.DATA);
+        doCallRealMethod().when(repository).streamAll();
+        doCallRealMethod().when(repository).findByName("historia");
+
+        assertEquals(2L, repository.findByName("historia").orElseThrow().getId(), "El id del examen debe ser 2");
+    }
+
+    // findByName por defecto deja de recorrer al encontrar el examen y cierra el stream
+    @Test
+    void testFindByNamePorDefectoCortaYCierra() {
+        ExamRepository repository = mock(ExamRepository.class);
+        AtomicInteger leidos = new AtomicInteger();
+        AtomicBoolean cerrado = new AtomicBoolean();
+        when(repository.streamAll()).thenReturn(Data.DATA.stream()
+                .peek(exam -> leidos.incrementAndGet())
+                .onClose(() -> cerrado.set(true)));
+        doCallRealMethod().when(repository).findByName("Geografia");
+
+        assertEquals(3L, repository.findByName("Geografia").orElseThrow().getId(), "El id del examen debe ser 3");
+        assertEquals(3, leidos.get(), "Solo se deben leer los examenes hasta encontrarlo");
+        assertTrue(cerrado.get(), "El stream se debe cerrar");
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    void testFindPage() {
+        ExamRepository repository = new ExamRepositoryImpl();
+
+        assertEquals(Data.DATA.subList(0, 2), repository.findPage(0, 2));
+        assertEquals(Data.DATA.subList(2, 4), repository.findPage(1, 2));
+        assertTrue(repository.findPage(10, 2).isEmpty(), "Después del último examen no hay más páginas");
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(0, 0));
+    }
+}
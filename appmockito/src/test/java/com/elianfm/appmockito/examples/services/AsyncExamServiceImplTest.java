@@ -0,0 +1,176 @@
+package com.elianfm.appmockito.examples.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.elianfm.appmockito.ejemplos.models.Exam;
+import com.elianfm.appmockito.ejemplos.repositories.ExamRepository;
+import com.elianfm.appmockito.ejemplos.repositories.QuestionRepository;
+import com.elianfm.appmockito.ejemplos.services.AsyncExamServiceImpl;
+import com.elianfm.appmockito.ejemplos.services.ExamService;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncExamServiceImplTest {
+
+    @Mock
+    ExamRepository repository;
+
+    @Mock
+    QuestionRepository questionRepository;
+
+    ExecutorService executor;
+
+    AsyncExamServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        // Con un executor propio podemos saber en qué hilos corren las búsquedas
+        executor = Executors.newFixedThreadPool(4, task -> new Thread(task, "examenes-test"));
+        service = new AsyncExamServiceImpl(repository, questionRepository, executor, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testExamQuestionsAsync() throws Exception {
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(new Exam(1L, "Matematicas", null)));
+        when(questionRepository.findQuestionsByExamId(1L)).thenAnswer(invocation -> {
+            assertEquals("examenes-test", Thread.currentThread().getName(), "Debe correr en el executor");
+            return Data.QUESTIONS;
+        });
+
+        CompletableFuture<Exam> future = service.findExamByNameWithQuestionsAsync("Matematicas");
+
+        Exam exam = future.get(5, TimeUnit.SECONDS);
+        assertEquals(1L, exam.getId(), "El id del examen debe ser 1");
+        assertEquals(15, exam.getQuestions().size(), "El examen debe tener 15 preguntas");
+    }
+
+    @Test
+    void testNoExistExamAsync() throws Exception {
+        when(repository.findByName("Matematicas II")).thenReturn(Optional.empty());
+
+        assertNull(service.findExamByNameWithQuestionsAsync("Matematicas II").get(5, TimeUnit.SECONDS));
+        assertTrue(service.findExamByNameAsync("Matematicas II").get(5, TimeUnit.SECONDS).isEmpty());
+        verify(questionRepository, never()).findQuestionsByExamId(anyLong());
+    }
+
+    // Si el repositorio tarda más que el timeout el future termina con TimeoutException
+    @Test
+    void testTimeout() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        AsyncExamServiceImpl conTimeout = new AsyncExamServiceImpl(repository, questionRepository, executor,
+                Duration.ofMillis(50));
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(new Exam(1L, "Matematicas", null)));
+        when(questionRepository.findQuestionsByExamId(1L)).thenAnswer(invocation -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return Data.QUESTIONS;
+        });
+
+        CompletableFuture<Exam> future = conTimeout.findExamByNameWithQuestionsAsync("Matematicas");
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        liberar.countDown();
+    }
+
+    @Test
+    void testExamsQuestionsBatchAsync() throws Exception {
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(new Exam(1L, "Matematicas", null)));
+        when(repository.findByName("Historia")).thenReturn(Optional.of(new Exam(2L, "Historia", null)));
+        when(questionRepository.findQuestionsByExamIds(anyCollection()))
+                .thenReturn(Map.of(1L, Data.QUESTIONS, 2L, List.of("Pregunta de historia")));
+
+        List<Exam> exams = service.findExamsByNamesWithQuestionsAsync(List.of("Matematicas", "Historia"))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("Matematicas", "Historia"), exams.stream().map(Exam::getName).toList());
+        assertEquals(List.of("Pregunta de historia"), exams.get(1).getQuestions());
+        verify(questionRepository, times(1)).findQuestionsByExamIds(anyCollection());
+        verify(questionRepository, never()).findQuestionsByExamId(anyLong());
+    }
+
+    // Con un ExamService propio los lotes buscan cada nombre en el executor y
+    // después le piden al delegado las preguntas de todos juntos
+    @Test
+    void testDelegado() throws Exception {
+        ExamService delegate = mock(ExamService.class);
+        AsyncExamServiceImpl conDelegado = new AsyncExamServiceImpl(delegate, executor, Duration.ofSeconds(5));
+        Exam exam = new Exam(1L, "Matematicas", null);
+        when(delegate.findExamByName("Matematicas")).thenAnswer(invocation -> {
+            assertEquals("examenes-test", Thread.currentThread().getName(), "Debe correr en el executor");
+            return Optional.of(exam);
+        });
+        when(delegate.findExamByName("Matematicas II")).thenReturn(Optional.empty());
+        when(delegate.loadQuestions(List.of(exam))).thenReturn(List.of(exam));
+
+        assertEquals(List.of(exam), conDelegado.findExamsByNamesWithQuestionsAsync(
+                List.of("Matematicas", "Matematicas II")).get(5, TimeUnit.SECONDS));
+        verify(delegate, times(1)).loadQuestions(List.of(exam));
+        verify(delegate, never()).findExamsByNamesWithQuestions(anyCollection());
+    }
+
+    // Las búsquedas de los examenes de un lote corren a la vez: cada una
+    // espera a que la otra haya empezado
+    @Test
+    void testLoteBuscaALaVez() throws Exception {
+        CountDownLatch empezadas = new CountDownLatch(2);
+        when(repository.findByName(anyString())).thenAnswer(invocation -> {
+            empezadas.countDown();
+            assertTrue(empezadas.await(5, TimeUnit.SECONDS), "Las búsquedas deben correr a la vez");
+            return Optional.of(new Exam(invocation.getArgument(0).equals("Matematicas") ? 1L : 2L,
+                    invocation.getArgument(0), null));
+        });
+        when(questionRepository.findQuestionsByExamIds(anyCollection())).thenReturn(Map.of());
+
+        List<Exam> exams = service.findExamsByNamesWithQuestionsAsync(List.of("Matematicas", "Historia"))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("Matematicas", "Historia"), exams.stream().map(Exam::getName).toList());
+    }
+
+    // Sin executor se usa el de por defecto (hilos virtuales si la JVM los tiene)
+    @Test
+    void testExecutorPorDefecto() throws Exception {
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(new Exam(1L, "Matematicas", null)));
+
+        try (AsyncExamServiceImpl porDefecto = new AsyncExamServiceImpl(repository, questionRepository,
+                Duration.ofSeconds(5))) {
+            assertEquals(1L, porDefecto.findExamByNameAsync("Matematicas").get(5, TimeUnit.SECONDS)
+                    .orElseThrow().getId());
+        }
+    }
+}
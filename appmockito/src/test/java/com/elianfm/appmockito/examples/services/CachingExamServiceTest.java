@@ -0,0 +1,234 @@
+package com.elianfm.appmockito.examples.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.elianfm.appmockito.ejemplos.models.Exam;
+import com.elianfm.appmockito.ejemplos.services.CachingExamService;
+import com.elianfm.appmockito.ejemplos.services.CachingExamService.CacheStats;
+import com.elianfm.appmockito.ejemplos.services.ExamService;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingExamServiceTest {
+
+    @Mock
+    ExamService delegate;
+
+    // Reloj falso para probar el vencimiento sin esperar
+    AtomicLong now = new AtomicLong();
+
+    CachingExamService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CachingExamService(delegate, 2, Duration.ofMinutes(5), now::get);
+    }
+
+    @Test
+    void testSegundaLlamadaUsaLaCache() {
+        when(delegate.findExamByNameWithQuestions("Matematicas")).thenReturn(Data.DATA.get(0));
+
+        Exam exam = service.findExamByNameWithQuestions("Matematicas");
+        Exam exam2 = service.findExamByNameWithQuestions("MATEMATICAS");
+
+        assertSame(exam, exam2, "Debe devolver el mismo examen");
+        verify(delegate, times(1)).findExamByNameWithQuestions(any());
+        assertEquals(new CacheStats(1, 1, 0), service.stats());
+    }
+
+    @Test
+    void testVencimiento() {
+        when(delegate.findExamByNameWithQuestions("Matematicas")).thenReturn(Data.DATA.get(0));
+
+        service.findExamByNameWithQuestions("Matematicas");
+        now.addAndGet(Duration.ofMinutes(4).toNanos());
+        service.findExamByNameWithQuestions("Matematicas");
+        now.addAndGet(Duration.ofMinutes(2).toNanos());
+        service.findExamByNameWithQuestions("Matematicas");
+
+        // la primera y la que llega después del vencimiento van al servicio
+        verify(delegate, times(2)).findExamByNameWithQuestions("Matematicas");
+        assertEquals(new CacheStats(1, 2, 0), service.stats());
+    }
+
+    @Test
+    void testDesalojoLru() {
+        when(delegate.findExamByNameWithQuestions(any()))
+                .thenAnswer(invocation -> new Exam(null, invocation.getArgument(0), List.of()));
+
+        service.findExamByNameWithQuestions("Matematicas");
+        service.findExamByNameWithQuestions("Historia");
+        service.findExamByNameWithQuestions("Matematicas");
+        // entra Geografia y sale Historia, que es la menos usada
+        service.findExamByNameWithQuestions("Geografia");
+        service.findExamByNameWithQuestions("Matematicas");
+        service.findExamByNameWithQuestions("Historia");
+
+        verify(delegate, times(1)).findExamByNameWithQuestions("Matematicas");
+        verify(delegate, times(2)).findExamByNameWithQuestions("Historia");
+        assertEquals(2, service.size());
+        assertEquals(new CacheStats(2, 4, 2), service.stats());
+    }
+
+    @Test
+    void testSaveInvalida() {
+        Exam exam = new Exam(null, "Matematicas", List.of());
+        when(delegate.findExamByNameWithQuestions("Matematicas")).thenReturn(Data.DATA.get(0));
+        when(delegate.save(exam)).thenReturn(exam);
+
+        service.findExamByNameWithQuestions("Matematicas");
+        service.save(exam);
+        service.findExamByNameWithQuestions("Matematicas");
+
+        verify(delegate, times(2)).findExamByNameWithQuestions("Matematicas");
+    }
+
+    @Test
+    void testErroresNoSeGuardan() {
+        when(delegate.findExamByNameWithQuestions("Matematicas"))
+                .thenThrow(new IllegalArgumentException("Error al obtener las preguntas"))
+                .thenReturn(Data.DATA.get(0));
+
+        assertThrows(IllegalArgumentException.class, () -> service.findExamByNameWithQuestions("Matematicas"));
+        assertSame(Data.DATA.get(0), service.findExamByNameWithQuestions("Matematicas"));
+    }
+
+    // Muchos hilos piden el mismo examen a la vez: solo uno va al servicio y
+    // los demás esperan su resultado
+    @Test
+    void testSinEstampida() throws Exception {
+        CountDownLatch buscando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(delegate.findExamByNameWithQuestions("Matematicas")).thenAnswer(invocation -> {
+            buscando.countDown();
+            liberar.await();
+            return Data.DATA.get(0);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Exam>> resultados = new ArrayList<>();
+            resultados.add(executor.submit(() -> service.findExamByNameWithQuestions("Matematicas")));
+            assertTrue(buscando.await(5, TimeUnit.SECONDS), "La primera búsqueda debe empezar");
+            for (int i = 0; i < 7; i++) {
+                resultados.add(executor.submit(() -> service.findExamByNameWithQuestions("Matematicas")));
+            }
+            // se da tiempo a que los demás hilos lleguen a esperar
+            while (service.stats().hits() < 7) {
+                Thread.sleep(1);
+            }
+            liberar.countDown();
+
+            for (Future<Exam> resultado : resultados) {
+                assertSame(Data.DATA.get(0), resultado.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(delegate, times(1)).findExamByNameWithQuestions("Matematicas");
+        assertEquals(new CacheStats(7, 1, 0), service.stats());
+    }
+
+    // Al renombrar un examen también se invalida la entrada del nombre viejo
+    @Test
+    void testSaveRenombradoInvalidaElNombreViejo() {
+        Exam renamed = new Exam(1L, "Algebra", List.of());
+        when(delegate.findExamByNameWithQuestions("Matematicas")).thenReturn(Data.DATA.get(0));
+        when(delegate.save(renamed)).thenReturn(renamed);
+
+        service.findExamByNameWithQuestions("Matematicas");
+        service.save(renamed);
+        service.findExamByNameWithQuestions("Matematicas");
+
+        verify(delegate, times(2)).findExamByNameWithQuestions("Matematicas");
+    }
+
+    // System.nanoTime puede ser negativo: una entrada en búsqueda no vence
+    @Test
+    void testRelojNegativo() throws Exception {
+        now.set(-Duration.ofDays(1).toNanos());
+        CountDownLatch buscando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(delegate.findExamByNameWithQuestions("Matematicas")).thenAnswer(invocation -> {
+            buscando.countDown();
+            liberar.await();
+            return Data.DATA.get(0);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Exam> primero = executor.submit(() -> service.findExamByNameWithQuestions("Matematicas"));
+            assertTrue(buscando.await(5, TimeUnit.SECONDS), "La primera búsqueda debe empezar");
+            Future<Exam> segundo = executor.submit(() -> service.findExamByNameWithQuestions("Matematicas"));
+            while (service.stats().hits() + service.stats().misses() < 2) {
+                Thread.sleep(1);
+            }
+            liberar.countDown();
+
+            assertSame(primero.get(5, TimeUnit.SECONDS), segundo.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(delegate, times(1)).findExamByNameWithQuestions("Matematicas");
+        assertEquals(new CacheStats(1, 1, 0), service.stats());
+    }
+
+    // Un Error en la búsqueda también llega a los que esperan y no queda en la cache
+    @Test
+    void testErrorNoDejaEsperando() throws Exception {
+        CountDownLatch buscando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(delegate.findExamByNameWithQuestions("Matematicas")).thenAnswer(invocation -> {
+            buscando.countDown();
+            liberar.await();
+            throw new StackOverflowError();
+        }).thenReturn(Data.DATA.get(0));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Exam> primero = executor.submit(() -> service.findExamByNameWithQuestions("Matematicas"));
+            assertTrue(buscando.await(5, TimeUnit.SECONDS), "La primera búsqueda debe empezar");
+            Future<Exam> segundo = executor.submit(() -> service.findExamByNameWithQuestions("Matematicas"));
+            while (service.stats().hits() < 1) {
+                Thread.sleep(1);
+            }
+            liberar.countDown();
+
+            for (Future<Exam> resultado : List.of(primero, segundo)) {
+                ExecutionException e = assertThrows(ExecutionException.class,
+                        () -> resultado.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(StackOverflowError.class, e.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertSame(Data.DATA.get(0), service.findExamByNameWithQuestions("Matematicas"));
+    }
+}
@@ -51,12 +51,12 @@ public class ExamServiceImplSpyTest {
 
         // Podemos hacer un híbrido entre un mock y un spy, es decir, podemos
         // simular el comportamiento de algunos métodos y al mismo tiempo llamar
-        // al método real de otros métodos. En este caso, estamos simulando el
-        // comportamiento del método findAll() de la clase ExamenRepositoryImpl y
-        // llamando al método real findQuestionsByExamId() de la clase
-        // QuestionRepositoryImpl. Pero es importante que usemos el método
-        // dowhen en lugar de when, ya que cuando usamos when estamos llamando al
-        // método real incluso si lo estamos simulando. 
+        // al método real de otros métodos. En este caso, estamos llamando al
+        // método real findByName() de la clase ExamRepositoryImpl y simulando
+        // con doReturn el comportamiento del método findQuestionsByExamId() de
+        // la clase QuestionRepositoryImpl. Pero es importante que usemos
+        // doReturn().when() en lugar de when, ya que cuando usamos when estamos
+        // llamando al método real incluso si lo estamos simulando.
         // when(questionRepository.findQuestionsByExamId(anyLong())).thenReturn(Data.QUESTIONS);
         doReturn(Data.QUESTIONS).when(questionRepository).findQuestionsByExamId(anyLong());
 
@@ -66,7 +66,7 @@ public class ExamServiceImplSpyTest {
         assertEquals(15, exam.getQuestions().size(), "El examen debe tener 15 preguntas");
         assertTrue(exam.getQuestions().contains("Pregunta 1"), "El examen debe tener la pregunta 1");
         
-        verify(examRepository, times(1)).findAll();
+        verify(examRepository, times(1)).findByName("Matematicas");
         verify(questionRepository, times(1)).findQuestionsByExamId(anyLong());
     }
 }
@@ -7,8 +7,10 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atLeastOnce;
@@ -23,12 +25,13 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -99,11 +102,11 @@ public class ExamServiceImplTest {
         // vacía o lo que queramos.
 
         // Aqui creamos un mock de la clase ExamenRepository y le decimos que cuando se
-        // llame al metodo findAll(), devuelva la lista de examenes que hemos creado
-        // anteriormente. Nota: Nunca se invoca el método real findAll() de la
+        // llame al metodo findByName("Matematicas"), devuelva el examen que hemos creado
+        // anteriormente. Nota: Nunca se invoca el método real findByName() de la
         // clase ExamenRepositoryImpl, ya que la idea es simular el comportamiento con
         // Mockito.
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
         // Nota 2: No se pueden simular los metodos estaticos, los metodos private ni
         // los métodos final
 
@@ -118,8 +121,8 @@ public class ExamServiceImplTest {
     @Test
     void findExamenByNameEmptyList(){
         // Aqui creamos un mock de la clase ExamenRepository y le decimos que cuando se
-        // llame al metodo findAll(), devuelva una lista vacia
-        when(repository.findAll()).thenReturn(Arrays.asList());
+        // llame al metodo findByName(), no encuentre el examen
+        when(repository.findByName("Matematicas")).thenReturn(Optional.empty());
 
         Optional<Exam> examen = service.findExamByName("Matematicas");
         assertFalse(examen.isPresent(), "El examen no debe estar presente");
@@ -128,7 +131,7 @@ public class ExamServiceImplTest {
 
     @Test
     void testExamQuestions() {
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
 
         // Aquí usamos anyLong() para indicar que no nos importa el valor del id del examen
         when(questionRepository.findQuestionsByExamId(anyLong())).thenReturn(Data.QUESTIONS);
@@ -144,7 +147,7 @@ public class ExamServiceImplTest {
     // varias veces. También se puede usar para verificar que un método no ha sido llamado.
     @Test
     void testExamQuestionsVerify() {
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
         when(questionRepository.findQuestionsByExamId(anyLong())).thenReturn(Data.QUESTIONS);
 
         Exam examen = service.findExamByNameWithQuestions("Matematicas");
@@ -152,13 +155,48 @@ public class ExamServiceImplTest {
         // Verificamos que el método findQuestionsByExamId() ha sido llamado una vez
         verify(questionRepository, times(1)).findQuestionsByExamId(examen.getId());
 
-        // Verificamos que el método findAll() ha sido llamado una vez
-        verify(repository, times(1)).findAll();
+        // Verificamos que el método findByName() ha sido llamado una vez y que ya
+        // no se traen todos los examenes con findAll()
+        verify(repository, times(1)).findByName("Matematicas");
+        verify(repository, never()).findAll();
+    }
+
+    // Con varios examenes las preguntas se buscan en una sola llamada al
+    // repositorio, no una por examen (problema N+1)
+    @Test
+    void testExamsQuestionsBatch() {
+        // examenes nuevos para no cambiar las preguntas de los de Data
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(new Exam(1L, "Matematicas", null)));
+        when(repository.findByName("Historia")).thenReturn(Optional.of(new Exam(2L, "Historia", null)));
+        when(repository.findByName("Matematicas II")).thenReturn(Optional.empty());
+        when(questionRepository.findQuestionsByExamIds(anyCollection()))
+                .thenReturn(Map.of(1L, Data.QUESTIONS, 2L, List.of("Pregunta de historia")));
+
+        List<Exam> exams = service.findExamsByNamesWithQuestions(List.of("Matematicas", "Historia", "Matematicas II"));
+
+        assertEquals(2, exams.size(), "Deben encontrarse dos examenes");
+        assertEquals(15, exams.get(0).getQuestions().size(), "Matematicas debe tener 15 preguntas");
+        assertEquals(List.of("Pregunta de historia"), exams.get(1).getQuestions());
+
+        // Una sola búsqueda de preguntas con los ids de los dos examenes
+        verify(questionRepository, times(1))
+                .findQuestionsByExamIds(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))));
+        verify(questionRepository, never()).findQuestionsByExamId(anyLong());
+    }
+
+    @Test
+    void testExamsQuestionsBatchSinExamenes() {
+        when(repository.findByName(anyString())).thenReturn(Optional.empty());
+
+        List<Exam> exams = service.findExamsByNamesWithQuestions(List.of("Matematicas II"));
+
+        assertTrue(exams.isEmpty(), "No debe haber examenes");
+        verifyNoInteractions(questionRepository);
     }
 
     @Test
     void testNoExistExamVerify() {
-        when(repository.findAll()).thenReturn(Collections.emptyList());
+        when(repository.findByName("Matematicas II")).thenReturn(Optional.empty());
         //when(questionRepository.findQuestionsByExamId(anyLong())).thenReturn(Data.QUESTIONS);
 
         Exam examen = service.findExamByNameWithQuestions("Matematicas II");
@@ -167,7 +205,7 @@ public class ExamServiceImplTest {
         
         // Verificamos que el método findQuestionsByExamId() no ha sido llamado
         // ya que el examen no existe 
-        verify(repository, times(1)).findAll();
+        verify(repository, times(1)).findByName("Matematicas II");
         verify(questionRepository, never()).findQuestionsByExamId(anyLong());
     }
 
@@ -212,7 +250,7 @@ public class ExamServiceImplTest {
 
     @Test
     void testExceptionHandler(){
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
         
         // thenThrow() es un método de Mockito que permite simular una excepción
         // cuando se llama a un método de un mock.
@@ -226,20 +264,20 @@ public class ExamServiceImplTest {
 
         assertEquals(IllegalArgumentException.class, exception.getClass(), "La excepción debe ser IllegalArgumentException");
 
-        verify(repository).findAll();
+        verify(repository).findByName("Matematicas");
         verify(questionRepository).findQuestionsByExamId(anyLong());
     }
 
     @Test
     void testArgumentMatchers() {
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
         when(questionRepository.findQuestionsByExamId(anyLong())).thenReturn(Data.QUESTIONS);
 
         service.findExamByNameWithQuestions("Matematicas");
 
         // argThat() es un método de Mockito que permite verificar que se ha llamado a un
         // método con un argumento que cumple una determinada condición.
-        verify(repository).findAll();
+        verify(repository).findByName("Matematicas");
         verify(questionRepository).findQuestionsByExamId(argThat(id -> id > 0 && id < 1000));
         verify(questionRepository).findQuestionsByExamId(argThat(id -> id != null && id.equals(1L)));
     }
@@ -248,12 +286,12 @@ public class ExamServiceImplTest {
     // usar un ArgumentMatcher personalizado. 
     @Test
     void testArgumentMatchersCustom() {
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
         when(questionRepository.findQuestionsByExamId(argThat(new MyArgsMatchers()))).thenReturn(Data.QUESTIONS);
 
         service.findExamByNameWithQuestions("Matematicas");
 
-        verify(repository).findAll();
+        verify(repository).findByName("Matematicas");
         verify(questionRepository).findQuestionsByExamId(argThat(new MyArgsMatchers()));
     }
 
@@ -280,7 +318,7 @@ public class ExamServiceImplTest {
 
     @Test
     void testArgumenCapture(){
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
         when(questionRepository.findQuestionsByExamId(anyLong())).thenReturn(Data.QUESTIONS);
 
         service.findExamByNameWithQuestions("Matematicas");
@@ -325,7 +363,7 @@ public class ExamServiceImplTest {
 
     @Test
     void testDoAnswer(){
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
         
         //when(questionRepository.findQuestionsByExamId(anyLong())).thenReturn(Data.QUESTIONS);
 
@@ -351,7 +389,7 @@ public class ExamServiceImplTest {
 
     @Test
     void testDoCallRealMethod(){
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
         //when(questionRepository.findQuestionsByExamId(anyLong())).thenReturn(Data.QUESTIONS);
 
         // doCallRealMethod() es un método de Mockito que permite llamar al método real
@@ -382,7 +420,7 @@ public class ExamServiceImplTest {
         // Podemos hacer un híbrido entre un mock y un spy, es decir, podemos
         // simular el comportamiento de algunos métodos y al mismo tiempo llamar
         // al método real de otros métodos. En este caso, estamos simulando el
-        // comportamiento del método findAll() de la clase ExamenRepositoryImpl y
+        // comportamiento del método findByName() de la clase ExamenRepositoryImpl y
         // llamando al método real findQuestionsByExamId() de la clase
         // QuestionRepositoryImpl. Pero es importante que usemos el método
         // dowhen en lugar de when, ya que cuando usamos when estamos llamando al
@@ -396,13 +434,14 @@ public class ExamServiceImplTest {
         assertEquals(15, exam.getQuestions().size(), "El examen debe tener 15 preguntas");
         assertTrue(exam.getQuestions().contains("Pregunta 1"), "El examen debe tener la pregunta 1");
         
-        verify(examRepository, times(1)).findAll();
+        verify(examRepository, times(1)).findByName("Matematicas");
         verify(questionRepository, times(1)).findQuestionsByExamId(anyLong());
     }
 
     @Test
     void testInvocationOrder(){
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
+        when(repository.findByName("Historia")).thenReturn(Optional.of(Data.DATA.get(1)));
 
         service.findExamByNameWithQuestions("Matematicas");
         service.findExamByNameWithQuestions("Historia");
@@ -416,7 +455,8 @@ public class ExamServiceImplTest {
 
     @Test 
     void testInvocationOrder2(){
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
+        when(repository.findByName("Historia")).thenReturn(Optional.of(Data.DATA.get(1)));
 
         service.findExamByNameWithQuestions("Matematicas");
         service.findExamByNameWithQuestions("Historia");
@@ -424,42 +464,43 @@ public class ExamServiceImplTest {
         // Podemos verificar el orden de los métodos de varios mocks
         InOrder inOrder = inOrder(repository, questionRepository);
 
-        inOrder.verify(repository).findAll();
-        // inOrder.verify(repository).findAll(); // No funcionaría porque
-        // el método findAll() no se llama dos veces seguidas, solo una vez.
+        inOrder.verify(repository).findByName("Matematicas");
+        // inOrder.verify(repository).findByName("Historia"); // No funcionaría porque
+        // findByName("Historia") se llama después de buscar las preguntas del primer examen.
         inOrder.verify(questionRepository).findQuestionsByExamId(1L);
 
-        inOrder.verify(repository).findAll();
+        inOrder.verify(repository).findByName("Historia");
         inOrder.verify(questionRepository).findQuestionsByExamId(2L);
     }
 
     @Test
     void testInvocationNumber(){
-        when(repository.findAll()).thenReturn(Data.DATA);
+        when(repository.findByName("Matematicas")).thenReturn(Optional.of(Data.DATA.get(0)));
+        when(repository.findByName("Historia")).thenReturn(Optional.of(Data.DATA.get(1)));
 
         service.findExamByNameWithQuestions("Matematicas");
         service.findExamByNameWithQuestions("Historia");
 
-        // Verificamos que el método findAll() se ha llamado dos veces
-        verify(repository, times(2)).findAll();
+        // Verificamos que el método findByName() se ha llamado dos veces
+        verify(repository, times(2)).findByName(anyString());
 
         // Verificamos que el método findQuestionsByExamId() se ha llamado dos veces
         verify(questionRepository, times(2)).findQuestionsByExamId(anyLong());
 
         // atLeast para verificar que se ha llamado al menos x veces
-        verify(repository, atLeast(1)).findAll();
+        verify(repository, atLeast(1)).findByName(anyString());
 
         // o podríamos usar atLeatstOnce() que es lo mismo
-        verify(repository, atLeastOnce()).findAll();
+        verify(repository, atLeastOnce()).findByName(anyString());
 
         // o un máximo
-        verify(repository, atMost(2)).findAll();
+        verify(repository, atMost(2)).findByName(anyString());
 
         // o máximo 1 vez
-        //verify(repository, atMostOnce()).findAll();
+        //verify(repository, atMostOnce()).findByName(anyString());
 
         // o nunca
-        //verify(repository, never()).findAll();
+        //verify(repository, never()).findByName(anyString());
 
         // o sin interacción con el mock
         //verifyNoInteractions(repository);
@@ -0,0 +1,63 @@
+package com.elianfm.junitapp.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elianfm.junitapp.models.Banco;
+import com.elianfm.junitapp.models.BancoColumnar;
+import com.elianfm.junitapp.models.Cuenta;
+
+/*
+ * Recorrido completo sumando todos los saldos: Banco (un objeto Cuenta por
+ * cuenta) contra BancoColumnar (saldos en bloques de long[]).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ColumnarBenchmark {
+
+    @Param({ "100000", "1000000" })
+    int cuentas;
+
+    Banco banco;
+    BancoColumnar columnar;
+
+    @Setup
+    public void setup() {
+        banco = new Banco("Objetos");
+        columnar = new BancoColumnar("Columnar");
+        for (int i = 0; i < cuentas; i++) {
+            banco.addCuenta(new Cuenta("Cuenta " + i, new BigDecimal(i)));
+            columnar.addCuentaUnidades("Cuenta " + i, i * 100_000L);
+        }
+    }
+
+    @Benchmark
+    public long totalBanco() {
+        long total = 0;
+        for (Cuenta cuenta : banco.getCuentas()) {
+            total += cuenta.getSaldoUnidades();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long totalColumnar() {
+        return columnar.totalUnidades();
+    }
+}
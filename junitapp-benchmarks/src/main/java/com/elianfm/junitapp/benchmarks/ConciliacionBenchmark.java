@@ -0,0 +1,75 @@
+package com.elianfm.junitapp.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elianfm.junitapp.models.Banco;
+import com.elianfm.junitapp.models.Cuenta;
+
+/*
+ * Tres hilos transfieren mientras un cuarto pide el total del banco sin
+ * parar, como hace la conciliación. Con "versiones" en false el total detiene
+ * las transferencias mientras copia los saldos; en true lee una versión y
+ * las transferencias siguen (ver Banco.activarVersiones).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConciliacionBenchmark {
+
+    @Param({ "false", "true" })
+    boolean versiones;
+
+    @Param({ "1024" })
+    int cuentas;
+
+    Banco banco;
+    Cuenta[] arreglo;
+    BigDecimal monto = BigDecimal.ONE;
+
+    @Setup
+    public void setup() {
+        banco = new Banco("Benchmark");
+        arreglo = new Cuenta[cuentas];
+        for (int i = 0; i < cuentas; i++) {
+            arreglo[i] = new Cuenta("Cuenta " + i, new BigDecimal("1000000000"));
+            banco.addCuenta(arreglo[i]);
+        }
+        if (versiones) {
+            banco.activarVersiones();
+        }
+    }
+
+    @Benchmark
+    @Group("conciliacion")
+    @GroupThreads(3)
+    public void transferir() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        banco.transferir(arreglo[random.nextInt(cuentas)], arreglo[random.nextInt(cuentas)], monto);
+    }
+
+    @Benchmark
+    @Group("conciliacion")
+    @GroupThreads(1)
+    public BigDecimal total() {
+        return banco.totalSaldos();
+    }
+}
@@ -0,0 +1,71 @@
+package com.elianfm.junitapp.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elianfm.junitapp.models.Cuenta;
+
+/*
+ * Débitos y créditos en un solo hilo sobre una cuenta elegida al azar entre
+ * "cuentas". Con muchas cuentas el costo incluye los fallos de caché de ir a
+ * buscar cada cuenta a memoria.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CuentaBenchmark {
+
+    @Param({ "1", "1000", "100000" })
+    int cuentas;
+
+    Cuenta[] arreglo;
+    BigDecimal monto = new BigDecimal("1.25");
+    long montoUnidades = 125_000L;
+
+    @Setup
+    public void setup() {
+        arreglo = new Cuenta[cuentas];
+        for (int i = 0; i < cuentas; i++) {
+            arreglo[i] = new Cuenta("Cuenta " + i, new BigDecimal("1000000"));
+        }
+    }
+
+    private Cuenta cualquiera() {
+        return arreglo[ThreadLocalRandom.current().nextInt(cuentas)];
+    }
+
+    @Benchmark
+    public void creditoYDebito() {
+        Cuenta cuenta = cualquiera();
+        cuenta.credito(monto);
+        cuenta.debito(monto);
+    }
+
+    @Benchmark
+    public void creditoYDebitoUnidades() {
+        Cuenta cuenta = cualquiera();
+        cuenta.creditoUnidades(montoUnidades);
+        cuenta.debitoUnidades(montoUnidades);
+    }
+
+    @Benchmark
+    public BigDecimal getSaldo() {
+        return cualquiera().getSaldo();
+    }
+}
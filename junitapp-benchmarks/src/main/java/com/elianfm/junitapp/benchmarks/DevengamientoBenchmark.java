@@ -0,0 +1,75 @@
+package com.elianfm.junitapp.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elianfm.junitapp.models.Devengamiento;
+
+/*
+ * Devengamiento de "cuentas" saldos: una cuenta a la vez con BigDecimal
+ * (como se haría con Cuenta.getSaldo/setSaldo) contra el cálculo sobre
+ * arreglos de unidades. Ambos dan el mismo resultado.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DevengamientoBenchmark {
+
+    @Param({ "100000" })
+    int cuentas;
+
+    Devengamiento devengamiento = new Devengamiento(List.of(
+            new Devengamiento.Tramo(BigDecimal.ZERO, new BigDecimal("0.000136986")),
+            new Devengamiento.Tramo(new BigDecimal("10000"), new BigDecimal("0.000205479"))),
+            new BigDecimal("0.75"));
+
+    long[] saldos;
+    BigDecimal[] saldosBigDecimal;
+    long[] intereses;
+    long[] comisiones;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        saldos = new long[cuentas];
+        saldosBigDecimal = new BigDecimal[cuentas];
+        for (int i = 0; i < cuentas; i++) {
+            saldos[i] = random.nextLong(5_000_000_000L);
+            saldosBigDecimal[i] = BigDecimal.valueOf(saldos[i], 5);
+        }
+        intereses = new long[cuentas];
+        comisiones = new long[cuentas];
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal ultimo = null;
+        for (BigDecimal saldo : saldosBigDecimal) {
+            ultimo = devengamiento.calcular(saldo);
+        }
+        return ultimo;
+    }
+
+    @Benchmark
+    public long[] arreglos() {
+        devengamiento.calcular(saldos, intereses, comisiones);
+        return intereses;
+    }
+}
@@ -0,0 +1,94 @@
+package com.elianfm.junitapp.benchmarks;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elianfm.junitapp.models.Banco;
+import com.elianfm.junitapp.models.Cuenta;
+import com.elianfm.junitapp.models.Diario;
+
+/*
+ * Costo que agrega el diario a cada transferencia: la diferencia entre
+ * conDiario=true y conDiario=false es lo que cuesta escribir el registro.
+ * transferirDurable además espera el fsync, con varios hilos se ve cuánto se
+ * comparte cada sincronización.
+ *
+ * Se abre un diario nuevo en cada iteración y se borra al terminarla, así las
+ * iteraciones no acumulan segmentos en el disco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiarioBenchmark {
+
+    @Param({ "false", "true" })
+    boolean conDiario;
+
+    Path directorio;
+    Diario diario;
+    Banco banco;
+    Cuenta cuenta1;
+    Cuenta cuenta2;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        banco = new Banco("Benchmark");
+        if (conDiario) {
+            directorio = Files.createTempDirectory("benchmark-diario");
+            diario = Diario.abrir(directorio);
+            banco.setDiario(diario);
+        }
+        cuenta1 = new Cuenta("Elian", new BigDecimal("1000"));
+        cuenta2 = new Cuenta("Andres", new BigDecimal("1000"));
+        banco.addCuenta(cuenta1);
+        banco.addCuenta(cuenta2);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (diario != null) {
+            diario.close();
+            try (Stream<Path> archivos = Files.walk(directorio)) {
+                for (Path archivo : archivos.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(archivo);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void transferirIdaYVuelta() {
+        banco.transferirUnidades(cuenta1, cuenta2, 100);
+        banco.transferirUnidades(cuenta2, cuenta1, 100);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void transferirDurable() {
+        banco.transferirDurable(cuenta1, cuenta2, BigDecimal.ONE);
+        banco.transferirDurable(cuenta2, cuenta1, BigDecimal.ONE);
+    }
+}
@@ -0,0 +1,81 @@
+package com.elianfm.junitapp.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elianfm.junitapp.models.Cuenta;
+
+/*
+ * Compara el saldo en BigDecimal, como funcionaba Cuenta antes de Dinero,
+ * contra el saldo en unidades long. Las dos versiones usan el mismo lock para
+ * comparar solo la representación del saldo. Con -prof gc se ve la diferencia
+ * en bytes asignados por operación.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DineroBenchmark {
+
+    // Copia de la versión anterior de Cuenta, con el saldo en BigDecimal
+    static class CuentaBigDecimal {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile BigDecimal saldo;
+
+        CuentaBigDecimal(BigDecimal saldo) {
+            this.saldo = saldo;
+        }
+
+        void debito(BigDecimal monto) {
+            lock.lock();
+            try {
+                BigDecimal nuevoSaldo = this.saldo.subtract(monto);
+                if (nuevoSaldo.compareTo(BigDecimal.ZERO) < 0) {
+                    throw new IllegalStateException("Dinero insuficiente");
+                }
+                this.saldo = nuevoSaldo;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void credito(BigDecimal monto) {
+            lock.lock();
+            try {
+                this.saldo = this.saldo.add(monto);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    CuentaBigDecimal antes = new CuentaBigDecimal(new BigDecimal("1000.12345"));
+    Cuenta despues = new Cuenta("Elian", new BigDecimal("1000.12345"));
+    BigDecimal monto = new BigDecimal("1.25");
+    long montoUnidades = 125_000L;
+
+    @Benchmark
+    public void bigDecimal() {
+        antes.credito(monto);
+        antes.debito(monto);
+    }
+
+    @Benchmark
+    public void unidades() {
+        despues.creditoUnidades(montoUnidades);
+        despues.debitoUnidades(montoUnidades);
+    }
+}
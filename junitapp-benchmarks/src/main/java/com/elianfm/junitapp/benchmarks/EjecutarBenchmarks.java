@@ -0,0 +1,37 @@
+package com.elianfm.junitapp.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Punto de entrada de benchmarks.jar. Acepta las mismas opciones que JMH y
+ * agrega dos valores por defecto:
+ * - el profiler de GC (-prof gc), que reporta bytes asignados por operación
+ * - resultados en JSON en jmh-result.json, para comparar entre versiones
+ *   (por ejemplo con https://jmh.morethan.io)
+ */
+public class EjecutarBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions lineaDeComandos = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(lineaDeComandos);
+
+        if (lineaDeComandos.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if (lineaDeComandos.getResultFormat().hasValue() == false) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (lineaDeComandos.getResult().hasValue() == false) {
+            builder.result("jmh-result.json");
+        }
+
+        Options opciones = builder.build();
+        new Runner(opciones).run();
+    }
+}
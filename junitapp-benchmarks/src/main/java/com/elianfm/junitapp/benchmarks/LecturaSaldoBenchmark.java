@@ -0,0 +1,91 @@
+package com.elianfm.junitapp.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elianfm.junitapp.models.Cuenta;
+
+/*
+ * Todos los hilos leen y escriben la misma cuenta, con "lecturas" por ciento
+ * de lecturas del saldo y el resto créditos y débitos:
+ * - lecturaOptimista: getSaldoUnidades, que lee sin lock y valida el sello
+ * - lecturaConLock: la misma mezcla pero cada operación, también las
+ *   lecturas, pasa por un ReentrantLock, como si la cuenta estuviera
+ *   bloqueada por completo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class LecturaSaldoBenchmark {
+
+    @Param({ "50", "90", "95", "99" })
+    int lecturas;
+
+    Cuenta cuenta;
+    ReentrantLock lockCompleto;
+
+    @Setup
+    public void setup() {
+        cuenta = new Cuenta("Benchmark", new BigDecimal("1000000000"));
+        lockCompleto = new ReentrantLock();
+    }
+
+    /*
+     * Contador propio de cada hilo para alternar créditos y débitos. La
+     * paridad de la tirada no sirve: con lecturas = 99 la única tirada que
+     * escribe es 99 y todas las escrituras serían débitos.
+     */
+    @State(Scope.Thread)
+    public static class Escrituras {
+        long cantidad;
+    }
+
+    private long operar(Escrituras escrituras) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int tirada = random.nextInt(100);
+        if (tirada < lecturas) {
+            return cuenta.getSaldoUnidades();
+        }
+        // créditos y débitos alternados para que el saldo no se agote
+        if ((escrituras.cantidad++ & 1) == 0) {
+            cuenta.creditoUnidades(1);
+        } else {
+            cuenta.intentarDebitoUnidades(1);
+        }
+        return 0;
+    }
+
+    @Benchmark
+    public long lecturaOptimista(Escrituras escrituras) {
+        return operar(escrituras);
+    }
+
+    @Benchmark
+    public long lecturaConLock(Escrituras escrituras) {
+        lockCompleto.lock();
+        try {
+            return operar(escrituras);
+        } finally {
+            lockCompleto.unlock();
+        }
+    }
+}
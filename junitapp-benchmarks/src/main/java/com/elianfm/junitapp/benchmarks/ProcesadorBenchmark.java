@@ -0,0 +1,99 @@
+package com.elianfm.junitapp.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elianfm.junitapp.models.Banco;
+import com.elianfm.junitapp.models.Cuenta;
+import com.elianfm.junitapp.models.ProcesadorTransferencias;
+
+/*
+ * Transferencias al azar por ProcesadorTransferencias, para comparar con
+ * TransferenciaBenchmark (los mismos parámetros de cuentas). Cada invocación
+ * publica LOTE transferencias y espera a que se completen todas, así el
+ * resultado incluye el tiempo hasta aplicarlas y no solo el de publicarlas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcesadorBenchmark {
+
+    private static final int LOTE = 1024;
+
+    @Param({ "2", "64", "4096" })
+    int cuentas;
+
+    @Param({ "1", "4" })
+    int particiones;
+
+    Cuenta[] arreglo;
+    ProcesadorTransferencias procesador;
+
+    @State(Scope.Thread)
+    public static class Completadas {
+        final AtomicLong cantidad = new AtomicLong();
+        final ProcesadorTransferencias.AlCompletar alCompletar = error -> cantidad.incrementAndGet();
+    }
+
+    @Setup
+    public void setup() {
+        Banco banco = new Banco("Benchmark");
+        arreglo = new Cuenta[cuentas];
+        for (int i = 0; i < cuentas; i++) {
+            arreglo[i] = new Cuenta("Cuenta " + i, new BigDecimal("1000000000"));
+            banco.addCuenta(arreglo[i]);
+        }
+        procesador = new ProcesadorTransferencias(banco, particiones, 1 << 16);
+    }
+
+    @TearDown
+    public void tearDown() {
+        procesador.close();
+    }
+
+    private void transferirLote(Completadas completadas) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long esperadas = completadas.cantidad.get() + LOTE;
+        for (int i = 0; i < LOTE; i++) {
+            procesador.transferirUnidades(arreglo[random.nextInt(cuentas)], arreglo[random.nextInt(cuentas)], 1,
+                    completadas.alCompletar);
+        }
+        while (completadas.cantidad.get() < esperadas) {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(LOTE)
+    public void transferirUnHilo(Completadas completadas) {
+        transferirLote(completadas);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OperationsPerInvocation(LOTE)
+    public void transferirConcurrente(Completadas completadas) {
+        transferirLote(completadas);
+    }
+}
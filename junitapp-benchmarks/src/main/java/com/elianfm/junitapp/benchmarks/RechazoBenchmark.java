@@ -0,0 +1,83 @@
+package com.elianfm.junitapp.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+import com.elianfm.junitapp.models.Cuenta;
+import com.elianfm.junitapp.models.ResultadoDebito;
+
+/*
+ * Costo de un débito rechazado por falta de saldo:
+ * - debitoConExcepcion: debitoUnidades, que lanza una excepción nueva con stack trace
+ * - exigirSinTraza: intentarDebitoUnidades(..).exigir(), que lanza la instancia compartida
+ * - intentarDebito: intentarDebitoUnidades, sin excepciones
+ *
+ * "profundidad" agrega llamadas en la pila antes del débito, porque el costo de
+ * capturar el stack trace crece con la cantidad de frames.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RechazoBenchmark {
+
+    @Param({ "0", "50" })
+    int profundidad;
+
+    Cuenta cuenta;
+    long monto = 1_000_000_000_000L;
+
+    @Setup
+    public void setup() {
+        cuenta = new Cuenta("Sin fondos", BigDecimal.ONE);
+    }
+
+    private boolean enProfundidad(int restante, BooleanSupplier debito) {
+        return restante == 0 ? debito.getAsBoolean() : enProfundidad(restante - 1, debito);
+    }
+
+    @Benchmark
+    public boolean debitoConExcepcion() {
+        return enProfundidad(profundidad, () -> {
+            try {
+                cuenta.debitoUnidades(monto);
+                return true;
+            } catch (DineroInsuficienteException e) {
+                return false;
+            }
+        });
+    }
+
+    @Benchmark
+    public boolean exigirSinTraza() {
+        return enProfundidad(profundidad, () -> {
+            try {
+                cuenta.intentarDebitoUnidades(monto).exigir();
+                return true;
+            } catch (DineroInsuficienteException e) {
+                return false;
+            }
+        });
+    }
+
+    @Benchmark
+    public boolean intentarDebito() {
+        return enProfundidad(profundidad, () -> cuenta.intentarDebitoUnidades(monto) == ResultadoDebito.APLICADO);
+    }
+}
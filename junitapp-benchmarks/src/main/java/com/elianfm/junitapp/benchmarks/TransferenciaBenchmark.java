@@ -0,0 +1,71 @@
+package com.elianfm.junitapp.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elianfm.junitapp.models.Banco;
+import com.elianfm.junitapp.models.Cuenta;
+
+/*
+ * Banco.transferir entre dos cuentas al azar, con un hilo y con todos los
+ * núcleos. La cantidad de cuentas controla la contención: con 2 cuentas todos
+ * los hilos pelean por los mismos locks, con miles casi nunca coinciden.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferenciaBenchmark {
+
+    @Param({ "2", "64", "4096" })
+    int cuentas;
+
+    Banco banco;
+    Cuenta[] arreglo;
+    BigDecimal monto = BigDecimal.ONE;
+
+    @Setup
+    public void setup() {
+        banco = new Banco("Benchmark");
+        arreglo = new Cuenta[cuentas];
+        for (int i = 0; i < cuentas; i++) {
+            arreglo[i] = new Cuenta("Cuenta " + i, new BigDecimal("1000000000"));
+            banco.addCuenta(arreglo[i]);
+        }
+    }
+
+    private void transferirAlAzar() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Cuenta origen = arreglo[random.nextInt(cuentas)];
+        Cuenta destino = arreglo[random.nextInt(cuentas)];
+        banco.transferir(origen, destino, monto);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void transferirUnHilo() {
+        transferirAlAzar();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void transferirConcurrente() {
+        transferirAlAzar();
+    }
+}
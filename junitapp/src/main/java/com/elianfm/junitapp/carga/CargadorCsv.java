@@ -0,0 +1,314 @@
+package com.elianfm.junitapp.carga;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.elianfm.junitapp.models.Banco;
+import com.elianfm.junitapp.models.Cuenta;
+import com.elianfm.junitapp.models.Dinero;
+
+/*
+ * Carga masiva de archivos CSV con líneas "persona,monto" (como data.csv pero
+ * con la persona en la primera columna), sin leer el archivo completo en
+ * memoria.
+ *
+ * El archivo se recorre por ventanas mapeadas en memoria; cada ventana termina
+ * en un fin de línea, así ninguna línea queda partida. Los montos se parsean
+ * directamente desde los bytes a unidades (ver Dinero), sin crear Strings ni
+ * BigDecimal. Solo la persona se decodifica a String porque se necesita para
+ * crear o buscar la cuenta.
+ *
+ * El archivo se recorre dos veces: la primera solo valida el formato de
+ * todas las líneas y la segunda las aplica. Una línea mal formada lanza
+ * IllegalArgumentException antes de que se haya modificado el banco. Las
+ * cuentas se agregan con Banco.addCuenta y los movimientos se aplican con
+ * Banco.acreditarUnidades e intentarDebitarUnidades, así pasan por la puerta
+ * de las transferencias y quedan en el diario del banco si tiene uno.
+ *
+ * Con más de un hilo el archivo se divide en rangos que empiezan y terminan en
+ * un límite de línea y cada rango se procesa en paralelo. En ese modo las
+ * líneas no se aplican en el orden del archivo: un débito puede procesarse
+ * antes que el crédito que lo hacía posible y quedar rechazado.
+ */
+public final class CargadorCsv {
+
+    public record ResultadoCarga(long lineas, long rechazadas) {
+
+        ResultadoCarga sumar(ResultadoCarga otro) {
+            return new ResultadoCarga(lineas + otro.lineas, rechazadas + otro.rechazadas);
+        }
+    }
+
+    // Recibe cada línea ya parseada y devuelve false si se rechazó
+    private interface ProcesadorLinea {
+        boolean procesar(String persona, long monto);
+    }
+
+    private static final int VENTANA = 64 << 20;
+    private static final int MAXIMO_PERSONA = 1024;
+
+    private final int hilos;
+    private final int ventana;
+
+    public CargadorCsv() {
+        this(1);
+    }
+
+    public CargadorCsv(int hilos) {
+        this(hilos, VENTANA);
+    }
+
+    CargadorCsv(int hilos, int ventana) {
+        if (hilos < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un hilo");
+        }
+        this.hilos = hilos;
+        this.ventana = ventana;
+    }
+
+    /*
+     * Crea una cuenta por línea con el monto como saldo inicial y la agrega al
+     * banco. Se rechazan los saldos negativos y las líneas con una persona que
+     * ya tiene cuenta.
+     */
+    public ResultadoCarga cargarCuentas(Path archivo, Banco banco) throws IOException {
+        return procesar(archivo, (persona, monto) -> {
+            if (monto < 0) {
+                return false;
+            }
+            // se busca y se agrega con el lock del banco, así dos hilos no
+            // pueden agregar la misma persona a la vez
+            synchronized (banco) {
+                if (banco.buscarPorPersona(persona).isPresent()) {
+                    return false;
+                }
+                banco.addCuenta(new Cuenta(persona, Dinero.aBigDecimal(monto)));
+                return true;
+            }
+        });
+    }
+
+    /*
+     * Aplica un movimiento por línea sobre la cuenta de la persona: un monto
+     * positivo es un crédito y uno negativo un débito. Se rechazan las líneas
+     * de personas sin cuenta y los débitos sin saldo suficiente.
+     */
+    public ResultadoCarga aplicarMovimientos(Path archivo, Banco banco) throws IOException {
+        return procesar(archivo, (persona, monto) -> {
+            Cuenta cuenta = banco.buscarPorPersona(persona).orElse(null);
+            if (cuenta == null) {
+                return false;
+            }
+            if (monto < 0) {
+                return banco.intentarDebitarUnidades(cuenta, -monto).aplicado();
+            }
+            banco.acreditarUnidades(cuenta, monto);
+            return true;
+        });
+    }
+
+    // Valida todo el archivo y recién entonces lo aplica
+    private ResultadoCarga procesar(Path archivo, ProcesadorLinea procesador) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long[] limites = dividir(canal);
+            recorrer(canal, limites, null);
+            return recorrer(canal, limites, procesador);
+        }
+    }
+
+    // Sin procesador solo se parsean las líneas, sin crear la persona ni aplicar nada
+    private ResultadoCarga recorrer(FileChannel canal, long[] limites, ProcesadorLinea procesador)
+            throws IOException {
+        try {
+            return IntStream.range(0, limites.length - 1)
+                    .parallel()
+                    .mapToObj(i -> procesarRango(canal, limites[i], limites[i + 1], procesador))
+                    .reduce(new ResultadoCarga(0, 0), ResultadoCarga::sumar);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Divide el archivo en rangos, moviendo cada corte al inicio de la línea siguiente
+    private long[] dividir(FileChannel canal) throws IOException {
+        long tamano = canal.size();
+        List<Long> limites = new ArrayList<>();
+        limites.add(0L);
+        for (int i = 1; i < hilos; i++) {
+            long corte = siguienteLinea(canal, Math.max(tamano * i / hilos, limites.get(limites.size() - 1)));
+            if (corte < tamano && corte > limites.get(limites.size() - 1)) {
+                limites.add(corte);
+            }
+        }
+        limites.add(tamano);
+        return limites.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private long siguienteLinea(FileChannel canal, long desde) throws IOException {
+        long tamano = canal.size();
+        long posicion = desde;
+        while (posicion < tamano) {
+            int largo = (int) Math.min(ventana, tamano - posicion);
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, posicion, largo);
+            for (int i = 0; i < largo; i++) {
+                if (buffer.get(i) == '\n') {
+                    return posicion + i + 1;
+                }
+            }
+            posicion += largo;
+        }
+        return tamano;
+    }
+
+    private ResultadoCarga procesarRango(FileChannel canal, long desde, long hasta, ProcesadorLinea procesador) {
+        byte[] persona = new byte[MAXIMO_PERSONA];
+        long lineas = 0;
+        long rechazadas = 0;
+        long posicion = desde;
+        try {
+            while (posicion < hasta) {
+                int largo = (int) Math.min(ventana, hasta - posicion);
+                MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, posicion, largo);
+                boolean ultimaVentana = posicion + largo == hasta;
+
+                int inicioLinea = 0;
+                for (int i = 0; i <= largo; i++) {
+                    boolean finDeLinea = i < largo ? buffer.get(i) == '\n' : ultimaVentana;
+                    if (!finDeLinea) {
+                        continue;
+                    }
+                    if (!lineaVacia(buffer, inicioLinea, i)) {
+                        lineas++;
+                        if (!procesarLinea(buffer, inicioLinea, i, persona, posicion, procesador)) {
+                            rechazadas++;
+                        }
+                    }
+                    inicioLinea = i + 1;
+                }
+
+                if (ultimaVentana) {
+                    break;
+                }
+                if (inicioLinea == 0) {
+                    throw new IllegalArgumentException(
+                            "Línea más larga que la ventana de lectura en la posición " + posicion);
+                }
+                // la línea incompleta del final se vuelve a leer en la ventana siguiente
+                posicion += inicioLinea;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ResultadoCarga(lineas, rechazadas);
+    }
+
+    private static boolean lineaVacia(MappedByteBuffer buffer, int inicio, int fin) {
+        for (int i = inicio; i < fin; i++) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\r' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean procesarLinea(MappedByteBuffer buffer, int inicio, int fin, byte[] persona,
+            long base, ProcesadorLinea procesador) {
+        int coma = inicio;
+        while (coma < fin && buffer.get(coma) != ',') {
+            coma++;
+        }
+        if (coma == fin) {
+            throw new IllegalArgumentException("Falta la coma en la línea de la posición " + (base + inicio));
+        }
+
+        int inicioPersona = saltarEspacios(buffer, inicio, coma);
+        int finPersona = recortarEspacios(buffer, inicioPersona, coma);
+        int largo = finPersona - inicioPersona;
+        if (largo > persona.length) {
+            throw new IllegalArgumentException("Persona demasiado larga en la posición " + (base + inicio));
+        }
+        buffer.get(inicioPersona, persona, 0, largo);
+
+        long monto = parsearMonto(buffer, coma + 1, fin, base);
+        if (procesador == null) {
+            return true;
+        }
+        return procesador.procesar(new String(persona, 0, largo, StandardCharsets.UTF_8), monto);
+    }
+
+    /*
+     * Parsea un monto decimal ("-12.5", "900", " 1000.12345 ") a unidades de
+     * Dinero. Igual que Dinero.aUnidades, no redondea: más de ESCALA decimales
+     * o un valor fuera de rango es un error.
+     */
+    static long parsearMonto(MappedByteBuffer buffer, int inicio, int fin, long base) {
+        int i = saltarEspacios(buffer, inicio, fin);
+        fin = recortarEspacios(buffer, i, fin);
+
+        boolean negativo = false;
+        if (i < fin && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negativo = buffer.get(i) == '-';
+            i++;
+        }
+
+        long valor = 0;
+        int digitos = 0;
+        int decimales = -1;
+        try {
+            for (; i < fin; i++) {
+                byte b = buffer.get(i);
+                if (b == '.' && decimales < 0) {
+                    decimales = 0;
+                } else if (b >= '0' && b <= '9') {
+                    valor = Math.addExact(Math.multiplyExact(valor, 10), b - '0');
+                    digitos++;
+                    if (decimales >= 0 && ++decimales > Dinero.ESCALA) {
+                        throw montoInvalido(base + inicio);
+                    }
+                } else {
+                    throw montoInvalido(base + inicio);
+                }
+            }
+            if (digitos == 0) {
+                throw montoInvalido(base + inicio);
+            }
+            for (int d = Math.max(decimales, 0); d < Dinero.ESCALA; d++) {
+                valor = Math.multiplyExact(valor, 10);
+            }
+        } catch (ArithmeticException e) {
+            throw montoInvalido(base + inicio);
+        }
+        return negativo ? -valor : valor;
+    }
+
+    private static IllegalArgumentException montoInvalido(long posicion) {
+        return new IllegalArgumentException("Monto inválido en la posición " + posicion);
+    }
+
+    private static int saltarEspacios(MappedByteBuffer buffer, int inicio, int fin) {
+        while (inicio < fin && esEspacio(buffer.get(inicio))) {
+            inicio++;
+        }
+        return inicio;
+    }
+
+    private static int recortarEspacios(MappedByteBuffer buffer, int inicio, int fin) {
+        while (fin > inicio && esEspacio(buffer.get(fin - 1))) {
+            fin--;
+        }
+        return fin;
+    }
+
+    private static boolean esEspacio(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
@@ -0,0 +1,231 @@
+package com.elianfm.junitapp.carga;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+import com.elianfm.junitapp.models.Banco;
+import com.elianfm.junitapp.models.Cuenta;
+
+/*
+ * Generador de carga para Banco.transferir: simula muchos clientes a la vez,
+ * cada uno con su propio hilo, que hacen transferencias entre cuentas elegidas
+ * según una Mezcla con una pausa al azar entre una y otra.
+ *
+ * Con --hilos=virtuales (por defecto) cada cliente es un hilo virtual, así se
+ * pueden simular cientos de miles de clientes. Los hilos virtuales se buscan
+ * por reflexión porque el proyecto compila con Java 17: si la JVM no los tiene
+ * (antes de Java 21) se usa igual un pool de hilos de plataforma de a lo sumo
+ * HILOS_PLATAFORMA, donde los clientes esperan su turno, y el reporte lo dice.
+ * Con --hilos=plataforma se usa siempre el pool.
+ *
+ * Al final informa transferencias por segundo, percentiles de latencia y si
+ * el dinero se conservó. El total del banco se compara solo al terminar:
+ * calcularlo detiene las transferencias (ver Banco.resumenSaldos) y hacerlo
+ * durante la prueba agregaría esas pausas a las latencias medidas.
+ *
+ * Uso (desde junitapp, después de compilar):
+ *   java -cp target/classes com.elianfm.junitapp.carga.GeneradorCarga \
+ *     --clientes=100000 --cuentas=10000 --operaciones=20 --mezcla=zipf --pausa=1000 --hilos=virtuales
+ * La pausa es el máximo en microsegundos entre dos transferencias de un cliente.
+ */
+public final class GeneradorCarga {
+
+    static final int HILOS_PLATAFORMA = 512;
+    private static final String SIN_HILOS_VIRTUALES = "esta JVM (Java " + Runtime.version().feature()
+            + ") no tiene hilos virtuales";
+    private static final BigDecimal SALDO_INICIAL = new BigDecimal("1000");
+
+    public enum Hilos {
+        VIRTUALES, PLATAFORMA;
+
+        public static Hilos desdeTexto(String texto) {
+            return valueOf(texto.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public record Configuracion(int clientes, int cuentas, int operacionesPorCliente, Mezcla mezcla,
+            long pausaMaximaMicros, Hilos hilos) {
+
+        public Configuracion {
+            if (clientes < 1 || cuentas < 1 || operacionesPorCliente < 0 || pausaMaximaMicros < 0
+                    || hilos == null) {
+                throw new IllegalArgumentException("Configuración de carga inválida");
+            }
+        }
+
+        public Configuracion(int clientes, int cuentas, int operacionesPorCliente, Mezcla mezcla,
+                long pausaMaximaMicros) {
+            this(clientes, cuentas, operacionesPorCliente, mezcla, pausaMaximaMicros, Hilos.VIRTUALES);
+        }
+
+        static Configuracion desdeArgumentos(String[] args) {
+            int clientes = 100_000;
+            int cuentas = 10_000;
+            int operaciones = 20;
+            Mezcla mezcla = Mezcla.UNIFORME;
+            long pausa = 1_000;
+            Hilos hilos = Hilos.VIRTUALES;
+            for (String arg : args) {
+                String[] partes = arg.replaceFirst("^--", "").split("=", 2);
+                if (partes.length != 2) {
+                    throw new IllegalArgumentException("Argumento inválido: " + arg);
+                }
+                switch (partes[0]) {
+                    case "clientes" -> clientes = Integer.parseInt(partes[1]);
+                    case "cuentas" -> cuentas = Integer.parseInt(partes[1]);
+                    case "operaciones" -> operaciones = Integer.parseInt(partes[1]);
+                    case "mezcla" -> mezcla = Mezcla.desdeTexto(partes[1]);
+                    case "pausa" -> pausa = Long.parseLong(partes[1]);
+                    case "hilos" -> hilos = Hilos.desdeTexto(partes[1]);
+                    default -> throw new IllegalArgumentException("Argumento desconocido: " + arg);
+                }
+            }
+            return new Configuracion(clientes, cuentas, operaciones, mezcla, pausa, hilos);
+        }
+    }
+
+    /*
+     * hilosPedidos es lo que pidió la configuración y hilosUsados lo que
+     * realmente corrió; si difieren, motivoHilos explica por qué.
+     */
+    public record Reporte(Hilos hilosPedidos, Hilos hilosUsados, String motivoHilos, int hilosPlataforma,
+            long exitosas, long rechazadas, long nanos, Latencias latencias, BigDecimal totalInicial,
+            BigDecimal totalFinal) {
+
+        public double transferenciasPorSegundo() {
+            return (exitosas + rechazadas) * 1e9 / Math.max(1, nanos);
+        }
+
+        public boolean dineroConservado() {
+            return totalInicial.compareTo(totalFinal) == 0;
+        }
+
+        public String hilos() {
+            String usados = hilosUsados == Hilos.VIRTUALES ? "virtuales"
+                    : "de plataforma (" + hilosPlataforma + ")";
+            return hilosPedidos == hilosUsados ? usados
+                    : usados + ", se pidieron " + hilosPedidos.name().toLowerCase(Locale.ROOT) + ": " + motivoHilos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, """
+                    Hilos:                  %s
+                    Transferencias:         %d exitosas, %d rechazadas
+                    Duración:               %.2f s
+                    Transferencias/s:       %.0f
+                    Latencia (µs):          p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  máx %.1f
+                    Conservación de dinero: %s (total inicial %s, final %s)""",
+                    hilos(), exitosas, rechazadas, nanos / 1e9, transferenciasPorSegundo(),
+                    latencias.percentil(50) / 1e3, latencias.percentil(90) / 1e3, latencias.percentil(99) / 1e3,
+                    latencias.percentil(99.9) / 1e3, latencias.maximo() / 1e3,
+                    dineroConservado() ? "OK" : "ERROR", totalInicial.toPlainString(), totalFinal.toPlainString());
+        }
+    }
+
+    private GeneradorCarga() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Configuracion configuracion = Configuracion.desdeArgumentos(args);
+        System.out.println(configuracion);
+        if (configuracion.hilos() == Hilos.VIRTUALES && !hilosVirtualesDisponibles()) {
+            System.out.println("Aviso: " + SIN_HILOS_VIRTUALES + ", se usan hilos de plataforma");
+        }
+        Reporte reporte = ejecutar(configuracion);
+        System.out.println(reporte);
+        if (!reporte.dineroConservado()) {
+            System.exit(1);
+        }
+    }
+
+    public static Reporte ejecutar(Configuracion configuracion) throws InterruptedException {
+        Banco banco = new Banco("Carga");
+        List<Cuenta> cuentas = new ArrayList<>(configuracion.cuentas());
+        for (int i = 0; i < configuracion.cuentas(); i++) {
+            Cuenta cuenta = new Cuenta("Cliente " + i, SALDO_INICIAL);
+            cuentas.add(cuenta);
+            banco.addCuenta(cuenta);
+        }
+        BigDecimal totalInicial = banco.totalSaldos();
+
+        Mezcla.Elector elector = configuracion.mezcla().elector(configuracion.cuentas());
+        Latencias latencias = new Latencias();
+        LongAdder exitosas = new LongAdder();
+        LongAdder rechazadas = new LongAdder();
+
+        Hilos usados = configuracion.hilos() == Hilos.VIRTUALES && hilosVirtualesDisponibles() ? Hilos.VIRTUALES
+                : Hilos.PLATAFORMA;
+        String motivo = usados == configuracion.hilos() ? null : SIN_HILOS_VIRTUALES;
+        int hilosPlataforma = Math.min(configuracion.clientes(), HILOS_PLATAFORMA);
+        ExecutorService executor = usados == Hilos.VIRTUALES ? hilosVirtuales()
+                : Executors.newFixedThreadPool(hilosPlataforma);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < configuracion.clientes(); i++) {
+            executor.execute(() -> simularCliente(configuracion, cuentas, elector, banco, latencias, exitosas,
+                    rechazadas));
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        long nanos = System.nanoTime() - inicio;
+
+        return new Reporte(configuracion.hilos(), usados, motivo, hilosPlataforma, exitosas.sum(),
+                rechazadas.sum(), nanos, latencias, totalInicial, banco.totalSaldos());
+    }
+
+    private static void simularCliente(Configuracion configuracion, List<Cuenta> cuentas, Mezcla.Elector elector,
+            Banco banco, Latencias latencias, LongAdder exitosas, LongAdder rechazadas) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < configuracion.operacionesPorCliente(); i++) {
+            Cuenta origen = cuentas.get(elector.siguiente(random));
+            Cuenta destino = cuentas.get(elector.siguiente(random));
+            BigDecimal monto = BigDecimal.valueOf(random.nextInt(1, 100));
+
+            long inicio = System.nanoTime();
+            try {
+                banco.transferir(origen, destino, monto);
+                exitosas.increment();
+            } catch (DineroInsuficienteException e) {
+                rechazadas.increment();
+            }
+            latencias.registrar(System.nanoTime() - inicio);
+
+            if (configuracion.pausaMaximaMicros() > 0) {
+                try {
+                    TimeUnit.MICROSECONDS.sleep(random.nextLong(configuracion.pausaMaximaMicros() + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    static boolean hilosVirtualesDisponibles() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ExecutorService hilosVirtuales() {
+        try {
+            Method metodo = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) metodo.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudieron crear hilos virtuales", e);
+        }
+    }
+}
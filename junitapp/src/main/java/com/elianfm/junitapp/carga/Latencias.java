@@ -0,0 +1,73 @@
+package com.elianfm.junitapp.carga;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/*
+ * Histograma de latencias en nanosegundos que se puede registrar desde muchos
+ * hilos a la vez sin guardar cada medición. Los baldes son log-lineales: cada
+ * potencia de 2 se divide en 2^BITS_SUBBALDE partes, así el error relativo de
+ * un percentil es menor a 1 / 2^BITS_SUBBALDE (6,25%) con cualquier magnitud.
+ */
+public final class Latencias {
+
+    private static final int BITS_SUBBALDE = 4;
+    private static final int SUBBALDES = 1 << BITS_SUBBALDE;
+
+    private final AtomicLongArray baldes = new AtomicLongArray((Long.SIZE - BITS_SUBBALDE + 1) << BITS_SUBBALDE);
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        baldes.incrementAndGet(balde(valor));
+        maximo.accumulate(valor);
+    }
+
+    public long cantidad() {
+        long cantidad = 0;
+        for (int i = 0; i < baldes.length(); i++) {
+            cantidad += baldes.get(i);
+        }
+        return cantidad;
+    }
+
+    public long maximo() {
+        return maximo.get();
+    }
+
+    // Límite superior del balde donde cae el percentil pedido (entre 0 y 100)
+    public long percentil(double percentil) {
+        long cantidad = cantidad();
+        if (cantidad == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(percentil / 100 * cantidad));
+        long acumulada = 0;
+        for (int i = 0; i < baldes.length(); i++) {
+            acumulada += baldes.get(i);
+            if (acumulada >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo());
+            }
+        }
+        return maximo();
+    }
+
+    static int balde(long valor) {
+        if (valor < SUBBALDES) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - BITS_SUBBALDE;
+        int subbalde = (int) (valor >>> desplazamiento) & (SUBBALDES - 1);
+        return ((desplazamiento + 1) << BITS_SUBBALDE) + subbalde;
+    }
+
+    static long limiteSuperior(int balde) {
+        if (balde < SUBBALDES) {
+            return balde;
+        }
+        int grupo = balde >>> BITS_SUBBALDE;
+        int subbalde = balde & (SUBBALDES - 1);
+        return ((long) (SUBBALDES + subbalde + 1) << (grupo - 1)) - 1;
+    }
+}
@@ -0,0 +1,57 @@
+package com.elianfm.junitapp.carga;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Cómo eligen los clientes simulados las cuentas de cada transferencia:
+ * - UNIFORME: todas las cuentas con la misma probabilidad
+ * - PUNTO_CALIENTE: el 90% de las elecciones cae en el 1% de las cuentas
+ * - ZIPF: la cuenta de rango k se elige con probabilidad proporcional a 1/k
+ */
+public enum Mezcla {
+    UNIFORME {
+        @Override
+        public Elector elector(int cuentas) {
+            return random -> random.nextInt(cuentas);
+        }
+    },
+    PUNTO_CALIENTE {
+        @Override
+        public Elector elector(int cuentas) {
+            int calientes = Math.max(1, cuentas / 100);
+            return random -> random.nextDouble() < 0.9 ? random.nextInt(calientes) : random.nextInt(cuentas);
+        }
+    },
+    ZIPF {
+        @Override
+        public Elector elector(int cuentas) {
+            // probabilidades acumuladas, se elige con una búsqueda binaria
+            double[] acumulada = new double[cuentas];
+            double suma = 0;
+            for (int k = 0; k < cuentas; k++) {
+                suma += 1.0 / (k + 1);
+                acumulada[k] = suma;
+            }
+            double total = suma;
+            return random -> {
+                int posicion = Arrays.binarySearch(acumulada, random.nextDouble() * total);
+                return Math.min(posicion >= 0 ? posicion : -posicion - 1, cuentas - 1);
+            };
+        }
+    };
+
+    // Devuelve el índice de la próxima cuenta, entre 0 y cuentas - 1
+    @FunctionalInterface
+    public interface Elector {
+        int siguiente(ThreadLocalRandom random);
+    }
+
+    public abstract Elector elector(int cuentas);
+
+    // Acepta el nombre en cualquier caso y con guiones, por ejemplo "punto-caliente"
+    public static Mezcla desdeTexto(String texto) {
+        return valueOf(texto.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
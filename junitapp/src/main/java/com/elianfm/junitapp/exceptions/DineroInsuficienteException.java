@@ -2,8 +2,25 @@ package com.elianfm.junitapp.exceptions;
 
 public class DineroInsuficienteException extends RuntimeException {
 
+    /*
+     * Instancia compartida sin stack trace para los caminos donde un débito
+     * rechazado es frecuente (ver ResultadoDebito.exigir). Capturar el stack
+     * trace es lo más caro de lanzar una excepción; al ser compartida tampoco
+     * admite excepciones suprimidas.
+     */
+    private static final DineroInsuficienteException SIN_TRAZA = new DineroInsuficienteException(
+            "Dinero insuficiente", false);
+
     public DineroInsuficienteException(String message) {
         super(message);
     }
 
+    protected DineroInsuficienteException(String message, boolean conTraza) {
+        super(message, null, conTraza, conTraza);
+    }
+
+    public static DineroInsuficienteException sinTraza() {
+        return SIN_TRAZA;
+    }
+
 }
@@ -2,34 +2,650 @@ package com.elianfm.junitapp.models;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
 
-@Data
-@AllArgsConstructor
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/*
+ * Un banco es igual solo a sí mismo (equals y hashCode de Object): compararlo
+ * por sus cuentas costaría O(n) y cambiaría con cada alta o baja.
+ */
+@Getter
+@Setter
+@ToString
 public class Banco {
-    private List<Cuenta> cuentas;
+    /*
+     * Las cuentas se indexan por id en un LinkedHashMap: buscar y eliminar son
+     * O(1) y la iteración mantiene el orden en que se agregaron. El segundo
+     * mapa permite buscar por persona también en O(1); una persona puede tener
+     * varias cuentas, en orden de alta. personasIndexadas guarda con qué
+     * persona se indexó cada cuenta, así una cuenta que cambió de persona se
+     * saca de la lista correcta.
+     *
+     * Los métodos que modifican o consultan los índices son synchronized, los
+     * mapas no se exponen directamente (getCuentas devuelve una copia de solo
+     * lectura).
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Map<Long, Cuenta> cuentasPorId = new LinkedHashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final Map<String, List<Cuenta>> cuentasPorPersona = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final Map<Long, String> personasIndexadas = new HashMap<>();
+
     private String nombre;
 
+    /*
+     * Cuentas ordenadas por saldo, solo si se activó (ver activarIndiceSaldos).
+     * Mantenerlo cuesta cuatro operaciones sobre el skip list por
+     * transferencia, por eso no está siempre activo.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile IndiceSaldos indiceSaldos;
+
+    // Versiones de los saldos para resumenSaldos sin detener transferencias (ver activarVersiones)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile RelojVersiones relojVersiones;
+
+    /*
+     * Puerta de las transferencias: cada transferencia entra con un lock de
+     * lectura (muchas a la vez), resumenSaldos y Devengamiento toman el de
+     * escritura solo mientras copian o ajustan los saldos. Así nunca ven una
+     * transferencia a medio aplicar.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final StampedLock puerta = new StampedLock();
+
+    // Se toma antes que los locks de dos cuentas que empatan en ordenDeLocks
+    private static final Object EMPATE = new Object();
+
+    // Diario opcional donde se registran las operaciones del banco (ver Diario y setDiario)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile Diario diario;
+
     public Banco(String nombre) {
         this.nombre = nombre;
-        this.cuentas = new ArrayList<>();
     }
 
+    public Banco(List<Cuenta> cuentas, String nombre) {
+        this(nombre);
+        cuentas.forEach(this::addCuenta);
+    }
 
+    /*
+     * La transferencia es segura con varios hilos: se bloquean las dos cuentas
+     * antes de tocar los saldos, así nadie puede debitar la cuenta origen entre
+     * la validación del saldo y el crédito en la cuenta destino.
+     *
+     * Para evitar deadlocks los locks siempre se toman en el mismo orden global
+     * (por id de cuenta, ver ordenDeLocks). Si un hilo transfiere A -> B y otro
+     * B -> A, ambos intentan bloquear primero la cuenta de menor id y ninguno
+     * queda esperando al otro. Transferencias entre cuentas distintas no
+     * comparten ningún lock, por lo que escalan con el número de hilos.
+     */
     public void transferir(Cuenta origen, Cuenta destino, BigDecimal monto) {
-        origen.debito(monto);
-        destino.credito(monto);
+        transferirUnidades(origen, destino, Dinero.aUnidades(monto));
+    }
+
+    public void transferirUnidades(Cuenta origen, Cuenta destino, long monto) {
+        transferirAnotando(origen, destino, monto);
+    }
+
+    /*
+     * Como transferir, pero vuelve recién cuando la transferencia está
+     * sincronizada en el diario. La espera se hace sin ningún lock tomado:
+     * las transferencias que esperan a la vez comparten el mismo fsync.
+     */
+    public void transferirDurable(Cuenta origen, Cuenta destino, BigDecimal monto) {
+        long registro = transferirAnotando(origen, destino, Dinero.aUnidades(monto));
+        Diario diarioOrigen = origen.getDiario();
+        Diario diarioDestino = destino.getDiario();
+        if (registro >= 0 && diarioOrigen != null) {
+            diarioOrigen.esperarDurable(registro);
+            return;
+        }
+        if (diarioOrigen != null) {
+            diarioOrigen.sincronizar();
+        }
+        if (diarioDestino != null && diarioDestino != diarioOrigen) {
+            diarioDestino.sincronizar();
+        }
+    }
+
+    private long transferirAnotando(Cuenta origen, Cuenta destino, long monto) {
+        int orden = ordenDeLocks(origen, destino);
+        Cuenta primera = orden <= 0 ? origen : destino;
+        Cuenta segunda = primera == origen ? destino : origen;
+
+        long sello = puerta.readLock();
+        try {
+            if (orden == 0 && origen != destino) {
+                synchronized (EMPATE) {
+                    return transferirBloqueando(primera, segunda, origen, destino, monto);
+                }
+            }
+            return transferirBloqueando(primera, segunda, origen, destino, monto);
+        } finally {
+            puerta.unlockRead(sello);
+        }
+    }
+
+    /*
+     * Orden en que se bloquean dos cuentas: por id. Dos objetos distintos con
+     * el mismo id (una cuenta de un banco reconstruido desde el diario o una
+     * instantánea junto a la original) se ordenan por
+     * System.identityHashCode; si también empatan devuelve 0 y la
+     * transferencia toma antes el lock global EMPATE, así dos transferencias
+     * entre ese par nunca se esperan mutuamente.
+     */
+    static int ordenDeLocks(Cuenta a, Cuenta b) {
+        int orden = Long.compare(a.getId(), b.getId());
+        if (orden == 0 && a != b) {
+            orden = Integer.compare(System.identityHashCode(a), System.identityHashCode(b));
+        }
+        return orden;
+    }
+
+    /*
+     * Los locks de las cuentas no son reentrantes (ver Cuenta.lock): con los
+     * dos tomados se usan las operaciones SinLock, y si origen y destino son
+     * la misma cuenta se bloquea una sola vez.
+     *
+     * Primero se valida y se registra en el diario, recién después se tocan
+     * los saldos: si algo falla (dinero insuficiente, desborde, diario
+     * cerrado) las dos cuentas quedan como estaban, y una transferencia
+     * aplicada siempre está en el diario. Devuelve el número de registro de
+     * la transferencia en el diario, o -1 si no se registró como tal.
+     */
+    private long transferirBloqueando(Cuenta primera, Cuenta segunda, Cuenta origen, Cuenta destino, long monto) {
+        long selloPrimera = primera.getLock().writeLock();
+        try {
+            long selloSegunda = primera == segunda ? 0 : segunda.getLock().writeLock();
+            try {
+                if (Dinero.restar(origen.saldoSinLock(), monto) < 0) {
+                    throw new DineroInsuficienteException("Dinero insuficiente");
+                }
+                if (origen != destino) {
+                    Dinero.sumar(destino.saldoSinLock(), monto);
+                }
+                // se registra con las dos cuentas bloqueadas para que el orden
+                // en el diario sea el mismo en que se aplican
+                long registro = anotarTransferencia(origen, destino, monto);
+                // las dos cuentas quedan en la misma versión, una lectura ve
+                // la transferencia completa o no la ve
+                long version = origen.siguienteVersion();
+                long versionDestino = destino.getRelojVersiones() == origen.getRelojVersiones() ? version
+                        : destino.siguienteVersion();
+                origen.debitoSinLock(monto, version);
+                destino.creditoSinLock(monto, versionDestino);
+                return registro;
+            } finally {
+                if (primera != segunda) {
+                    segunda.getLock().unlockWrite(selloSegunda);
+                }
+            }
+        } finally {
+            primera.getLock().unlockWrite(selloPrimera);
+        }
+    }
+
+    /*
+     * Registra una transferencia en el diario de sus cuentas, antes de
+     * aplicarla y con las dos cuentas bloqueadas. Si las dos están en el mismo
+     * diario es un solo registro; si no, cada diario registra el movimiento de
+     * su cuenta. Devuelve el número del registro de la transferencia, o -1.
+     */
+    static long anotarTransferencia(Cuenta origen, Cuenta destino, long monto) {
+        Diario diarioOrigen = origen.getDiario();
+        Diario diarioDestino = destino.getDiario();
+        if (diarioOrigen != null && diarioOrigen == diarioDestino) {
+            return diarioOrigen.registrarTransferencia(origen, destino, monto);
+        }
+        if (diarioOrigen != null) {
+            diarioOrigen.registrarMovimiento(origen, Dinero.restar(0, monto));
+        }
+        if (diarioDestino != null) {
+            diarioDestino.registrarMovimiento(destino, monto);
+        }
+        return -1;
+    }
+
+    /*
+     * Crédito y débito sobre una cuenta del banco que entran por la puerta de
+     * las transferencias, así resumenSaldos, Devengamiento y las instantáneas
+     * los ven enteros o no los ven. Quedan en el diario como cualquier
+     * movimiento de la cuenta.
+     */
+    public void acreditarUnidades(Cuenta cuenta, long monto) {
+        long sello = puerta.readLock();
+        try {
+            cuenta.creditoUnidades(monto);
+        } finally {
+            puerta.unlockRead(sello);
+        }
+    }
+
+    public ResultadoDebito intentarDebitarUnidades(Cuenta cuenta, long monto) {
+        long sello = puerta.readLock();
+        try {
+            return cuenta.intentarDebitoUnidades(monto);
+        } finally {
+            puerta.unlockRead(sello);
+        }
+    }
+
+    public List<ResultadoTransferencia> transferirLote(List<Transferencia> lote) {
+        return transferirLote(lote, ForkJoinPool.commonPool());
+    }
+
+    /*
+     * Ejecuta un lote de transferencias aprovechando todos los núcleos.
+     *
+     * Primero se separa el lote en grupos independientes: dos transferencias
+     * van al mismo grupo si comparten alguna cuenta (directa o indirectamente,
+     * con union-find sobre los ids). Los grupos no tienen cuentas en común, así
+     * que se ejecutan en paralelo en el pool; dentro de cada grupo las
+     * transferencias se aplican en el orden del lote.
+     *
+     * Una transferencia que falla no detiene el resto: el resultado de cada
+     * una se devuelve en la misma posición que tenía en el lote.
+     */
+    public List<ResultadoTransferencia> transferirLote(List<Transferencia> lote, ForkJoinPool pool) {
+        ResultadoTransferencia[] resultados = new ResultadoTransferencia[lote.size()];
+        Collection<List<Integer>> grupos = agruparPorCuentas(lote);
+
+        pool.submit(() -> grupos.parallelStream().forEach(grupo -> {
+            for (int i : grupo) {
+                Transferencia transferencia = lote.get(i);
+                RuntimeException error = null;
+                try {
+                    transferir(transferencia.origen(), transferencia.destino(), transferencia.monto());
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+                resultados[i] = new ResultadoTransferencia(transferencia, error);
+            }
+        })).join();
+
+        return Arrays.asList(resultados);
     }
 
-    public void addCuenta(Cuenta cuenta) {
-        this.cuentas.add(cuenta);
+    // Devuelve los índices del lote agrupados por componente conexa de cuentas
+    private static Collection<List<Integer>> agruparPorCuentas(List<Transferencia> lote) {
+        Map<Long, Integer> posiciones = new HashMap<>();
+        int[] padres = new int[lote.size() * 2];
+        for (Transferencia transferencia : lote) {
+            int origen = posicion(posiciones, padres, transferencia.origen());
+            int destino = posicion(posiciones, padres, transferencia.destino());
+            padres[raiz(padres, origen)] = raiz(padres, destino);
+        }
+
+        Map<Integer, List<Integer>> grupos = new LinkedHashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            int grupo = raiz(padres, posiciones.get(lote.get(i).origen().getId()));
+            grupos.computeIfAbsent(grupo, k -> new ArrayList<>()).add(i);
+        }
+        return grupos.values();
+    }
+
+    private static int posicion(Map<Long, Integer> posiciones, int[] padres, Cuenta cuenta) {
+        return posiciones.computeIfAbsent(cuenta.getId(), id -> {
+            int nueva = posiciones.size();
+            padres[nueva] = nueva;
+            return nueva;
+        });
+    }
+
+    private static int raiz(int[] padres, int i) {
+        while (padres[i] != i) {
+            padres[i] = padres[padres[i]];
+            i = padres[i];
+        }
+        return i;
+    }
+
+    /*
+     * Agregar una cuenta que ya está en el banco no hace nada. Otra cuenta con
+     * el mismo id (por ejemplo una copia cargada de una instantánea) se
+     * rechaza: el banco no puede tener dos objetos para una misma cuenta.
+     */
+    public synchronized void addCuenta(Cuenta cuenta) {
+        Cuenta actual = this.cuentasPorId.get(cuenta.getId());
+        if (actual == cuenta) {
+            return;
+        }
+        if (actual != null) {
+            throw new IllegalArgumentException("El banco ya tiene otra cuenta con el id " + cuenta.getId());
+        }
+        // el alta se registra primero, si el diario falla la cuenta no se agrega
+        if (this.diario != null) {
+            cuenta.usarDiario(this.diario, true);
+        }
+        this.cuentasPorId.put(cuenta.getId(), cuenta);
+        indexarPersona(cuenta);
+        if (this.indiceSaldos != null) {
+            cuenta.indexar(this.indiceSaldos);
+        }
+        if (this.relojVersiones != null) {
+            cuenta.versionar(this.relojVersiones);
+        }
         cuenta.setBanco(this);
     }
 
-    public void removeCuenta(Cuenta cuenta) {
-        this.cuentas.remove(cuenta);
+    public synchronized void removeCuenta(Cuenta cuenta) {
+        Cuenta actual = this.cuentasPorId.get(cuenta.getId());
+        if (actual == null) {
+            return;
+        }
+        // la baja se registra primero, si el diario falla la cuenta sigue en el banco
+        if (this.diario != null) {
+            actual.dejarDeUsarDiario(this.diario, true);
+        }
+        // se da de baja la cuenta del banco aunque llegue otro objeto con el
+        // mismo id (por ejemplo una copia de una instantánea)
+        this.cuentasPorId.remove(actual.getId());
+        desindexarPersona(actual);
+        if (this.indiceSaldos != null) {
+            actual.desindexar(this.indiceSaldos);
+        }
+        if (this.relojVersiones != null) {
+            actual.dejarDeVersionar(this.relojVersiones);
+        }
+    }
+
+    public synchronized Optional<Cuenta> buscarPorId(long id) {
+        return Optional.ofNullable(this.cuentasPorId.get(id));
+    }
+
+    // Si la persona tiene varias cuentas devuelve la primera que se agregó
+    public synchronized Optional<Cuenta> buscarPorPersona(String persona) {
+        List<Cuenta> cuentas = this.cuentasPorPersona.get(persona);
+        return cuentas == null ? Optional.empty() : Optional.of(cuentas.get(0));
+    }
+
+    public synchronized List<Cuenta> cuentasDePersona(String persona) {
+        return List.copyOf(this.cuentasPorPersona.getOrDefault(persona, List.of()));
+    }
+
+    // Lo llama Cuenta.setPersona para que la cuenta se pueda buscar por su persona nueva
+    synchronized void reindexarPersona(Cuenta cuenta) {
+        if (this.cuentasPorId.get(cuenta.getId()) == cuenta) {
+            desindexarPersona(cuenta);
+            indexarPersona(cuenta);
+        }
+    }
+
+    private void indexarPersona(Cuenta cuenta) {
+        String persona = cuenta.getPersona();
+        if (persona != null) {
+            this.cuentasPorPersona.computeIfAbsent(persona, p -> new ArrayList<>(1)).add(cuenta);
+            this.personasIndexadas.put(cuenta.getId(), persona);
+        }
+    }
+
+    private void desindexarPersona(Cuenta cuenta) {
+        String persona = this.personasIndexadas.remove(cuenta.getId());
+        List<Cuenta> cuentas = persona == null ? null : this.cuentasPorPersona.get(persona);
+        if (cuentas != null) {
+            cuentas.remove(cuenta);
+            if (cuentas.isEmpty()) {
+                this.cuentasPorPersona.remove(persona);
+            }
+        }
+    }
+
+    /*
+     * Desde acá las operaciones del banco y los movimientos de sus cuentas se
+     * registran en el diario, empezando por un alta de cada cuenta que ya
+     * tiene con su saldo actual. Mientras tanto no entra ninguna transferencia
+     * ni alta o baja. Con null deja de registrar (el diario no se cierra).
+     */
+    public void setDiario(Diario diario) {
+        conTransferenciasDetenidas(cuentas -> {
+            if (diario != null) {
+                // las personas se validan antes de escribir ninguna alta
+                cuentas.forEach(cuenta -> Diario.persona(cuenta.getPersona()));
+            }
+            cambiarDiario(cuentas, diario, true);
+            return null;
+        });
+    }
+
+    // El banco reconstruido desde el diario sigue escribiendo en él, sin repetir las altas
+    void continuarDiario(Diario diario) {
+        conTransferenciasDetenidas(cuentas -> {
+            cambiarDiario(cuentas, diario, false);
+            return null;
+        });
+    }
+
+    private void cambiarDiario(Collection<Cuenta> cuentas, Diario diario, boolean registrarAltas) {
+        Diario anterior = this.diario;
+        if (anterior == diario) {
+            return;
+        }
+        try {
+            for (Cuenta cuenta : cuentas) {
+                if (anterior != null) {
+                    cuenta.dejarDeUsarDiario(anterior, false);
+                }
+                if (diario != null) {
+                    cuenta.usarDiario(diario, registrarAltas);
+                }
+            }
+        } catch (RuntimeException e) {
+            // si el diario nuevo falla las cuentas vuelven al anterior
+            for (Cuenta cuenta : cuentas) {
+                if (diario != null) {
+                    cuenta.dejarDeUsarDiario(diario, false);
+                }
+                if (anterior != null) {
+                    cuenta.usarDiario(anterior, false);
+                }
+            }
+            throw e;
+        }
+        this.diario = diario;
+    }
+
+    /*
+     * Desde acá cada cuenta guarda versiones de su saldo y resumenSaldos lee
+     * todas en una misma versión, sin detener las transferencias. Cada
+     * escritura cuesta un número del reloj compartido y una versión nueva.
+     * Si ya estaba activo no hace nada.
+     */
+    public synchronized void activarVersiones() {
+        if (this.relojVersiones == null) {
+            RelojVersiones reloj = new RelojVersiones();
+            this.cuentasPorId.values().forEach(cuenta -> cuenta.versionar(reloj));
+            this.relojVersiones = reloj;
+        }
+    }
+
+    /*
+     * Copia los saldos de todas las cuentas en un mismo instante. Con
+     * versiones activas se leen todas en la última versión y las
+     * transferencias siguen; si no, mientras se copian no entra ninguna
+     * transferencia nueva y las que están en curso terminan antes. Los
+     * cálculos del resumen se hacen después, en paralelo y sin frenar las
+     * transferencias.
+     */
+    public ResumenSaldos resumenSaldos() {
+        RelojVersiones reloj = this.relojVersiones;
+        if (reloj != null) {
+            return resumenVersionado(reloj);
+        }
+        return conTransferenciasDetenidas(cuentas -> {
+            long[] saldos = new long[cuentas.size()];
+            int i = 0;
+            for (Cuenta cuenta : cuentas) {
+                saldos[i++] = cuenta.getSaldoUnidades();
+            }
+            return new ResumenSaldos(saldos);
+        });
+    }
+
+    private ResumenSaldos resumenVersionado(RelojVersiones reloj) {
+        while (true) {
+            Cuenta[] cuentas;
+            RelojVersiones.Lectura lectura;
+            // la lectura se abre junto con la copia de las cuentas, así las
+            // altas y bajas también quedan de un lado o del otro
+            synchronized (this) {
+                cuentas = this.cuentasPorId.values().toArray(new Cuenta[0]);
+                lectura = reloj.abrirLectura();
+            }
+            try {
+                long[] saldos = new long[cuentas.length];
+                int i = 0;
+                while (i < cuentas.length
+                        && (saldos[i] = cuentas[i].saldoEnVersion(lectura.version())) != RelojVersiones.VERSION_PODADA) {
+                    i++;
+                }
+                if (i == cuentas.length) {
+                    return new ResumenSaldos(saldos);
+                }
+                // se podó una versión antes de que la lectura quedara registrada, se repite
+            } finally {
+                reloj.cerrarLectura(lectura);
+            }
+        }
+    }
+
+    // Ejecuta la tarea sobre las cuentas sin transferencias en curso ni altas o bajas
+    <T> T conTransferenciasDetenidas(Function<Collection<Cuenta>, T> tarea) {
+        long sello = puerta.writeLock();
+        try {
+            synchronized (this) {
+                return tarea.apply(this.cuentasPorId.values());
+            }
+        } finally {
+            puerta.unlockWrite(sello);
+        }
+    }
+
+    /*
+     * Lee los saldos de todas las cuentas, le pide al cálculo una diferencia
+     * por cuenta y la aplica, todo con las transferencias detenidas (ver
+     * Devengamiento.aplicar). Con diario las diferencias se registran juntas
+     * antes de aplicar ninguna. Devuelve la cantidad de cuentas.
+     */
+    int ajustarSaldos(BiConsumer<long[], long[]> calculo) {
+        return conTransferenciasDetenidas(lista -> {
+            Cuenta[] cuentas = lista.toArray(new Cuenta[0]);
+            long[] saldos = new long[cuentas.length];
+            for (int i = 0; i < cuentas.length; i++) {
+                saldos[i] = cuentas[i].getSaldoUnidades();
+            }
+            long[] diferencias = new long[cuentas.length];
+            calculo.accept(saldos, diferencias);
+
+            Diario diario = this.diario;
+            if (diario != null) {
+                diario.registrarMovimientos(cuentas, diferencias);
+            }
+            for (int i = 0; i < cuentas.length; i++) {
+                if (diferencias[i] != 0) {
+                    cuentas[i].aplicarMovimiento(diferencias[i]);
+                }
+            }
+            return cuentas.length;
+        });
+    }
+
+    public BigDecimal totalSaldos() {
+        return resumenSaldos().total();
+    }
+
+    public long contarCuentas(LongPredicate predicadoSaldo) {
+        return resumenSaldos().contar(predicadoSaldo);
+    }
+
+    /*
+     * Desde acá el banco mantiene sus cuentas ordenadas por saldo y cada
+     * débito o crédito actualiza el orden. Si ya estaba activo no hace nada.
+     */
+    public synchronized void activarIndiceSaldos() {
+        if (this.indiceSaldos == null) {
+            IndiceSaldos indice = new IndiceSaldos();
+            this.cuentasPorId.values().forEach(cuenta -> cuenta.indexar(indice));
+            this.indiceSaldos = indice;
+        }
+    }
+
+    /*
+     * Consultas por saldo. Con el índice activo son O(log n) más lo que se
+     * devuelve y no frenan las transferencias, pero pueden ver saldos de
+     * momentos distintos (ver IndiceSaldos). Sin índice se ordena una copia
+     * de las cuentas en cada consulta.
+     */
+    public List<Cuenta> mayoresSaldos(int cantidad) {
+        return indiceSaldos().mayores(cantidad);
+    }
+
+    public List<Cuenta> cuentasConSaldoEntre(BigDecimal desde, BigDecimal hasta) {
+        return indiceSaldos().entre(Dinero.aUnidades(desde), Dinero.aUnidades(hasta));
+    }
+
+    private IndiceSaldos indiceSaldos() {
+        IndiceSaldos indice = this.indiceSaldos;
+        if (indice != null) {
+            return indice;
+        }
+        List<Cuenta> cuentas;
+        synchronized (this) {
+            cuentas = List.copyOf(this.cuentasPorId.values());
+        }
+        IndiceSaldos temporal = new IndiceSaldos();
+        cuentas.forEach(cuenta -> temporal.agregar(cuenta, cuenta.getSaldoUnidades()));
+        return temporal;
+    }
+
+    public synchronized int cantidadCuentas() {
+        return this.cuentasPorId.size();
+    }
+
+    /*
+     * Copia de solo lectura de las cuentas en orden de alta. Se puede recorrer
+     * aunque otro hilo agregue o elimine cuentas, pero no refleja esos cambios.
+     */
+    public synchronized List<Cuenta> getCuentas() {
+        return List.copyOf(this.cuentasPorId.values());
+    }
+
+    // Reemplaza todas las cuentas del banco, como si se eliminaran y se agregaran una por una
+    public synchronized void setCuentas(List<Cuenta> cuentas) {
+        getCuentas().forEach(this::removeCuenta);
+        cuentas.forEach(this::addCuenta);
     }
 }
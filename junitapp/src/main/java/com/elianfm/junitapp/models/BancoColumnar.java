@@ -0,0 +1,352 @@
+package com.elianfm.junitapp.models;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+
+/*
+ * Variante de Banco para millones de cuentas: en vez de un objeto Cuenta por
+ * cuenta (con su BigDecimal, lock y entradas en los mapas) los datos se guardan
+ * en columnas de primitivos indexadas por slot:
+ * - saldos: long en unidades de Dinero
+ * - personas: referencia al String de la persona
+ * - un índice persona -> slot con direccionamiento abierto sobre un int[],
+ *   sin un objeto por entrada
+ *
+ * Las personas no van en una tabla de strings aparte con un índice int por
+ * slot: acá cada persona tiene a lo sumo una cuenta (addCuenta rechaza la
+ * segunda), así que esa tabla no compartiría ningún string y sumaría una
+ * indirección más a cada lectura.
+ *
+ * Cada columna está partida en bloques de TAMANO_BLOQUE slots. Crecer es
+ * agregar un bloque nuevo, los existentes nunca se copian, así una
+ * transferencia en curso nunca escribe sobre un arreglo viejo.
+ *
+ * Las cuentas se acceden con CuentaColumnar, una vista liviana (banco, slot y
+ * generación) que se crea al vuelo y no guarda datos propios.
+ *
+ * Toda escritura de un saldo se hace con el lock de su franja (slot % FRANJAS);
+ * las transferencias toman los de sus dos franjas en orden, igual que Banco
+ * con los locks por cuenta, y totalUnidades los toma todos en el mismo orden.
+ * Altas, bajas y búsquedas por persona además son synchronized.
+ *
+ * Los slots de cuentas eliminadas se reutilizan. Cada slot tiene una
+ * generación que aumenta al eliminar su cuenta: la vista guarda la generación
+ * con que se creó y cada operación la compara, así una vista de una cuenta
+ * eliminada lanza IllegalStateException en vez de tocar a la cuenta nueva
+ * que ocupa su slot.
+ */
+public class BancoColumnar {
+
+    static final int BITS_BLOQUE = 14;
+    static final int TAMANO_BLOQUE = 1 << BITS_BLOQUE;
+    private static final int MASCARA_BLOQUE = TAMANO_BLOQUE - 1;
+    private static final int FRANJAS = 256;
+
+    private static final VarHandle SALDO = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle GENERACION = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final String nombre;
+    private final ReentrantLock[] franjas = new ReentrantLock[FRANJAS];
+
+    private volatile long[][] saldos = new long[0][];
+    private volatile String[][] personas = new String[0][];
+    private volatile int[][] generaciones = new int[0][];
+
+    // Estado de altas y bajas, protegido por el lock del banco
+    private int siguienteSlot;
+    private int cantidad;
+    private int[] libres = new int[16];
+    private int cantidadLibres;
+    private int[] indice = new int[16];
+
+    public BancoColumnar(String nombre) {
+        this.nombre = nombre;
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public CuentaColumnar addCuenta(String persona, BigDecimal saldo) {
+        return addCuentaUnidades(persona, Dinero.aUnidades(saldo));
+    }
+
+    public synchronized CuentaColumnar addCuentaUnidades(String persona, long saldo) {
+        Objects.requireNonNull(persona, "La persona es obligatoria");
+        if (buscarSlot(persona) >= 0) {
+            throw new IllegalArgumentException("Ya existe una cuenta para " + persona);
+        }
+        int slot = cantidadLibres > 0 ? libres[--cantidadLibres] : nuevoSlot();
+        ReentrantLock franja = franjas[slot % FRANJAS];
+        franja.lock();
+        try {
+            personas[slot >>> BITS_BLOQUE][slot & MASCARA_BLOQUE] = persona;
+            escribirSaldo(slot, saldo);
+        } finally {
+            franja.unlock();
+        }
+        cantidad++;
+        indexar(persona, slot);
+        return new CuentaColumnar(this, slot, generacion(slot));
+    }
+
+    private int nuevoSlot() {
+        int slot = siguienteSlot++;
+        if ((slot >>> BITS_BLOQUE) == saldos.length) {
+            long[][] nuevosSaldos = Arrays.copyOf(saldos, saldos.length + 1);
+            nuevosSaldos[saldos.length] = new long[TAMANO_BLOQUE];
+            String[][] nuevasPersonas = Arrays.copyOf(personas, personas.length + 1);
+            nuevasPersonas[personas.length] = new String[TAMANO_BLOQUE];
+            int[][] nuevasGeneraciones = Arrays.copyOf(generaciones, generaciones.length + 1);
+            nuevasGeneraciones[generaciones.length] = new int[TAMANO_BLOQUE];
+            personas = nuevasPersonas;
+            generaciones = nuevasGeneraciones;
+            saldos = nuevosSaldos;
+        }
+        return slot;
+    }
+
+    public synchronized void removeCuenta(CuentaColumnar cuenta) {
+        if (cuenta.getBanco() != this) {
+            return;
+        }
+        int slot = cuenta.getSlot();
+        ReentrantLock franja = franjas[slot % FRANJAS];
+        franja.lock();
+        try {
+            String persona = persona(slot);
+            if (persona == null || generacion(slot) != cuenta.getGeneracion()) {
+                return;
+            }
+            desindexar(persona);
+            // la generación cambia antes que los datos: quien vea el slot
+            // vacío ya ve la generación nueva
+            GENERACION.setRelease(generaciones[slot >>> BITS_BLOQUE], slot & MASCARA_BLOQUE,
+                    cuenta.getGeneracion() + 1);
+            personas[slot >>> BITS_BLOQUE][slot & MASCARA_BLOQUE] = null;
+            escribirSaldo(slot, 0L);
+        } finally {
+            franja.unlock();
+        }
+        cantidad--;
+        if (cantidadLibres == libres.length) {
+            libres = Arrays.copyOf(libres, libres.length * 2);
+        }
+        libres[cantidadLibres++] = slot;
+    }
+
+    public synchronized Optional<CuentaColumnar> buscarPorPersona(String persona) {
+        int slot = buscarSlot(persona);
+        return slot < 0 ? Optional.empty() : Optional.of(new CuentaColumnar(this, slot, generacion(slot)));
+    }
+
+    public synchronized int cantidadCuentas() {
+        return cantidad;
+    }
+
+    public void transferir(CuentaColumnar origen, CuentaColumnar destino, BigDecimal monto) {
+        transferirUnidades(origen, destino, Dinero.aUnidades(monto));
+    }
+
+    public void transferirUnidades(CuentaColumnar cuentaOrigen, CuentaColumnar cuentaDestino, long monto) {
+        if (cuentaOrigen.getBanco() != this || cuentaDestino.getBanco() != this) {
+            throw new IllegalArgumentException("La cuenta no es de este banco");
+        }
+        int origen = cuentaOrigen.getSlot();
+        int destino = cuentaDestino.getSlot();
+        int franjaOrigen = origen % FRANJAS;
+        int franjaDestino = destino % FRANJAS;
+        ReentrantLock primera = franjas[Math.min(franjaOrigen, franjaDestino)];
+        ReentrantLock segunda = franjas[Math.max(franjaOrigen, franjaDestino)];
+
+        primera.lock();
+        try {
+            segunda.lock();
+            try {
+                verificarGeneracion(origen, cuentaOrigen.getGeneracion());
+                verificarGeneracion(destino, cuentaDestino.getGeneracion());
+                long nuevoSaldo = Dinero.restar(saldoUnidades(origen), monto);
+                if (nuevoSaldo < 0) {
+                    throw new DineroInsuficienteException("Dinero insuficiente");
+                }
+                if (origen == destino) {
+                    return;
+                }
+                long saldoDestino = Dinero.sumar(saldoUnidades(destino), monto);
+                escribirSaldo(origen, nuevoSaldo);
+                escribirSaldo(destino, saldoDestino);
+            } finally {
+                segunda.unlock();
+            }
+        } finally {
+            primera.unlock();
+        }
+    }
+
+    /*
+     * Suma los saldos recorriendo las columnas en orden, sin crear objetos por
+     * cuenta. Con los locks de todas las franjas tomados ninguna transferencia
+     * queda a medio aplicar, así el total es exacto aunque haya transferencias
+     * en curso (esperan mientras se suma).
+     */
+    public long totalUnidades() {
+        for (ReentrantLock franja : franjas) {
+            franja.lock();
+        }
+        try {
+            long total = 0;
+            for (long[] bloque : saldos) {
+                for (long saldo : bloque) {
+                    total = Math.addExact(total, saldo);
+                }
+            }
+            return total;
+        } finally {
+            for (int i = FRANJAS - 1; i >= 0; i--) {
+                franjas[i].unlock();
+            }
+        }
+    }
+
+    public BigDecimal total() {
+        return Dinero.aBigDecimal(totalUnidades());
+    }
+
+    long saldoUnidades(int slot) {
+        return (long) SALDO.getAcquire(saldos[slot >>> BITS_BLOQUE], slot & MASCARA_BLOQUE);
+    }
+
+    String persona(int slot) {
+        return personas[slot >>> BITS_BLOQUE][slot & MASCARA_BLOQUE];
+    }
+
+    private int generacion(int slot) {
+        return (int) GENERACION.getAcquire(generaciones[slot >>> BITS_BLOQUE], slot & MASCARA_BLOQUE);
+    }
+
+    /*
+     * Lecturas de una vista sin lock: el dato se lee antes que la generación.
+     * Como bajar una cuenta cambia la generación antes de borrar sus datos, si
+     * la generación sigue siendo la de la vista el dato era de su cuenta.
+     */
+    long saldoUnidades(int slot, int generacion) {
+        long saldo = saldoUnidades(slot);
+        verificarGeneracion(slot, generacion);
+        return saldo;
+    }
+
+    String persona(int slot, int generacion) {
+        String persona = persona(slot);
+        VarHandle.loadLoadFence();
+        verificarGeneracion(slot, generacion);
+        return persona;
+    }
+
+    private void verificarGeneracion(int slot, int generacion) {
+        if (generacion(slot) != generacion) {
+            throw new IllegalStateException("La cuenta fue eliminada del banco");
+        }
+    }
+
+    void debito(int slot, int generacion, long monto) {
+        ReentrantLock franja = franjas[slot % FRANJAS];
+        franja.lock();
+        try {
+            verificarGeneracion(slot, generacion);
+            long nuevoSaldo = Dinero.restar(saldoUnidades(slot), monto);
+            if (nuevoSaldo < 0) {
+                throw new DineroInsuficienteException("Dinero insuficiente");
+            }
+            escribirSaldo(slot, nuevoSaldo);
+        } finally {
+            franja.unlock();
+        }
+    }
+
+    void credito(int slot, int generacion, long monto) {
+        ReentrantLock franja = franjas[slot % FRANJAS];
+        franja.lock();
+        try {
+            verificarGeneracion(slot, generacion);
+            escribirSaldo(slot, Dinero.sumar(saldoUnidades(slot), monto));
+        } finally {
+            franja.unlock();
+        }
+    }
+
+    private void escribirSaldo(int slot, long saldo) {
+        SALDO.setRelease(saldos[slot >>> BITS_BLOQUE], slot & MASCARA_BLOQUE, saldo);
+    }
+
+    /*
+     * Índice persona -> slot con direccionamiento abierto (sondeo lineal). Cada
+     * posición guarda slot + 1, 0 es una posición vacía. La persona se compara
+     * contra la columna de personas, el índice no guarda Strings.
+     */
+    private int buscarSlot(String persona) {
+        int mascara = indice.length - 1;
+        for (int i = posicionInicial(persona, mascara); indice[i] != 0; i = (i + 1) & mascara) {
+            int slot = indice[i] - 1;
+            if (persona.equals(persona(slot))) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void indexar(String persona, int slot) {
+        if (cantidad * 2 > indice.length) {
+            int[] anterior = indice;
+            indice = new int[anterior.length * 2];
+            for (int entrada : anterior) {
+                if (entrada != 0) {
+                    insertar(persona(entrada - 1), entrada);
+                }
+            }
+        }
+        insertar(persona, slot + 1);
+    }
+
+    private void insertar(String persona, int entrada) {
+        int mascara = indice.length - 1;
+        int i = posicionInicial(persona, mascara);
+        while (indice[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+        indice[i] = entrada;
+    }
+
+    // Borrado con corrimiento hacia atrás, así el sondeo lineal no necesita marcas de borrado
+    private void desindexar(String persona) {
+        int mascara = indice.length - 1;
+        int i = posicionInicial(persona, mascara);
+        while (!persona.equals(persona(indice[i] - 1))) {
+            i = (i + 1) & mascara;
+        }
+        indice[i] = 0;
+        for (int j = (i + 1) & mascara; indice[j] != 0; j = (j + 1) & mascara) {
+            int deseada = posicionInicial(persona(indice[j] - 1), mascara);
+            // la entrada en j se puede mover al hueco i si su posición deseada no está entre i y j
+            if (((j - deseada) & mascara) >= ((j - i) & mascara)) {
+                indice[i] = indice[j];
+                indice[j] = 0;
+                i = j;
+            }
+        }
+    }
+
+    private static int posicionInicial(String persona, int mascara) {
+        int h = persona.hashCode();
+        return (h ^ (h >>> 16)) & mascara;
+    }
+}
@@ -0,0 +1,291 @@
+package com.elianfm.junitapp.models;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/*
+ * Banco repartido en fragmentos independientes. Cada cuenta vive en el
+ * fragmento que le toca por su id, que no cambia nunca: una persona puede
+ * tener varias cuentas en fragmentos distintos y cambiarle la persona a una
+ * cuenta no la mueve de fragmento. Cada fragmento es un Banco con su propio
+ * hilo (un executor de un hilo) donde se ejecutan sus transferencias.
+ *
+ * Una transferencia entre cuentas del mismo fragmento es un Banco.transferir
+ * en el hilo del fragmento. Entre fragmentos distintos es una saga de dos
+ * pasos con compensación (no una reserva con confirmación: el débito se aplica
+ * de verdad en el primer paso):
+ * 1. debitarOrigen: en el hilo del fragmento origen se debita la cuenta origen
+ *    y el monto pasa a estar en tránsito
+ * 2. acreditarDestino: en el hilo del fragmento destino se acredita la cuenta
+ *    destino y el monto sale de tránsito
+ * Si el segundo paso falla (la cuenta destino no existe, el crédito desborda,
+ * el fragmento destino no acepta la tarea) se compensa devolviendo el monto a
+ * la cuenta origen en su fragmento. Si tampoco se puede devolver, el monto
+ * queda en tránsito: el dinero nunca desaparece, total() lo sigue contando.
+ * Entre los dos pasos otra transferencia puede ver la cuenta origen ya
+ * debitada y la destino todavía sin acreditar.
+ *
+ * Cada paso mueve dinero entre una cuenta y enTransito con el lock de lectura
+ * de pasos tomado; total() toma el de escritura mientras suma, así ve cada
+ * paso entero o no lo ve y el total es exacto aun con transferencias en curso.
+ */
+public class BancoParticionado implements AutoCloseable {
+
+    private static final long PAUSA_NANOS = 100_000;
+
+    private final String nombre;
+    private final Fragmento[] fragmentos;
+    private final AtomicLong enTransito = new AtomicLong();
+    // Lectura: un paso de una transferencia entre fragmentos; escritura: total()
+    private final StampedLock pasos = new StampedLock();
+    // Transferencias aceptadas que todavía no terminaron, close espera a que lleguen a 0
+    private final LongAdder pendientes = new LongAdder();
+    private volatile boolean cerrado;
+
+    private static final class Fragmento {
+        private final Banco banco;
+        private final ExecutorService executor;
+
+        Fragmento(String nombre) {
+            this.banco = new Banco(nombre);
+            this.executor = Executors.newSingleThreadExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, nombre);
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+
+        Cuenta cuenta(long id) {
+            return banco.buscarPorId(id)
+                    .orElseThrow(() -> new IllegalArgumentException("No existe la cuenta " + id));
+        }
+    }
+
+    public BancoParticionado(String nombre, int fragmentos) {
+        if (fragmentos < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un fragmento");
+        }
+        this.nombre = nombre;
+        this.fragmentos = new Fragmento[fragmentos];
+        for (int i = 0; i < fragmentos; i++) {
+            this.fragmentos[i] = new Fragmento(nombre + "-" + i);
+        }
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int cantidadFragmentos() {
+        return fragmentos.length;
+    }
+
+    public void addCuenta(Cuenta cuenta) {
+        fragmentoDe(cuenta.getId()).banco.addCuenta(cuenta);
+    }
+
+    public void removeCuenta(Cuenta cuenta) {
+        fragmentoDe(cuenta.getId()).banco.removeCuenta(cuenta);
+    }
+
+    public Optional<Cuenta> buscarPorId(long id) {
+        return fragmentoDe(id).banco.buscarPorId(id);
+    }
+
+    // Las cuentas de una persona pueden estar en cualquier fragmento, se buscan en todos
+    public List<Cuenta> cuentasDePersona(String persona) {
+        List<Cuenta> cuentas = new ArrayList<>();
+        for (Fragmento fragmento : fragmentos) {
+            cuentas.addAll(fragmento.banco.cuentasDePersona(persona));
+        }
+        return cuentas;
+    }
+
+    public int cantidadCuentas() {
+        int cantidad = 0;
+        for (Fragmento fragmento : fragmentos) {
+            cantidad += fragmento.banco.cantidadCuentas();
+        }
+        return cantidad;
+    }
+
+    /*
+     * Con el lock de escritura de pasos ningún dinero entra ni sale de
+     * tránsito mientras se suma; las transferencias dentro de un fragmento
+     * siguen y cada fragmento las detiene solo mientras copia sus saldos (ver
+     * Banco.resumenSaldos).
+     */
+    public BigDecimal total() {
+        long sello = pasos.writeLock();
+        try {
+            long total = enTransito.get();
+            for (Fragmento fragmento : fragmentos) {
+                total = Dinero.sumar(total, Dinero.aUnidades(fragmento.banco.totalSaldos()));
+            }
+            return Dinero.aBigDecimal(total);
+        } finally {
+            pasos.unlockWrite(sello);
+        }
+    }
+
+    // Dinero debitado de un fragmento que todavía no se acreditó en el otro
+    public BigDecimal enTransito() {
+        return Dinero.aBigDecimal(enTransito.get());
+    }
+
+    /*
+     * El futuro se completa cuando la transferencia terminó: aplicada, o
+     * rechazada (con las cuentas como estaban) con el error que la rechazó.
+     * Las cuentas se buscan por id en su fragmento, una cuenta que no está en
+     * el banco rechaza la transferencia.
+     */
+    public CompletableFuture<Void> transferir(Cuenta origen, Cuenta destino, BigDecimal monto) {
+        long unidades = Dinero.aUnidades(monto);
+        long idOrigen = origen.getId();
+        long idDestino = destino.getId();
+        Fragmento fragmentoOrigen = fragmentoDe(idOrigen);
+        Fragmento fragmentoDestino = fragmentoDe(idDestino);
+        CompletableFuture<Void> resultado = new CompletableFuture<>();
+
+        // se cuenta antes de mirar cerrado, así close nunca deja de esperar una
+        // transferencia que sí se aceptó
+        pendientes.increment();
+        if (cerrado) {
+            terminar(resultado, new IllegalStateException("El banco " + nombre + " está cerrado"));
+            return resultado;
+        }
+
+        if (fragmentoOrigen == fragmentoDestino) {
+            ejecutar(fragmentoOrigen, () -> {
+                try {
+                    Banco banco = fragmentoOrigen.banco;
+                    banco.transferirUnidades(fragmentoOrigen.cuenta(idOrigen), fragmentoOrigen.cuenta(idDestino),
+                            unidades);
+                    terminar(resultado, null);
+                } catch (RuntimeException e) {
+                    terminar(resultado, e);
+                }
+            }, e -> terminar(resultado, e));
+        } else {
+            ejecutar(fragmentoOrigen,
+                    () -> debitarOrigen(fragmentoOrigen, idOrigen, fragmentoDestino, idDestino, unidades, resultado),
+                    e -> terminar(resultado, e));
+        }
+        return resultado;
+    }
+
+    private void debitarOrigen(Fragmento fragmentoOrigen, long origen, Fragmento fragmentoDestino,
+            long destino, long unidades, CompletableFuture<Void> resultado) {
+        Cuenta cuenta;
+        long sello = pasos.readLock();
+        try {
+            cuenta = fragmentoOrigen.cuenta(origen);
+            cuenta.debitoUnidades(unidades);
+            enTransito.addAndGet(unidades);
+        } catch (RuntimeException e) {
+            terminar(resultado, e);
+            return;
+        } finally {
+            pasos.unlockRead(sello);
+        }
+        ejecutar(fragmentoDestino,
+                () -> acreditarDestino(fragmentoOrigen, cuenta, fragmentoDestino, destino, unidades, resultado),
+                e -> compensar(fragmentoOrigen, cuenta, unidades, e, resultado));
+    }
+
+    private void acreditarDestino(Fragmento fragmentoOrigen, Cuenta cuentaOrigen, Fragmento fragmentoDestino,
+            long destino, long unidades, CompletableFuture<Void> resultado) {
+        long sello = pasos.readLock();
+        try {
+            fragmentoDestino.cuenta(destino).creditoUnidades(unidades);
+            enTransito.addAndGet(-unidades);
+        } catch (RuntimeException e) {
+            compensar(fragmentoOrigen, cuentaOrigen, unidades, e, resultado);
+            return;
+        } finally {
+            pasos.unlockRead(sello);
+        }
+        terminar(resultado, null);
+    }
+
+    // Devuelve el monto debitado a la cuenta origen, en el hilo de su fragmento
+    private void compensar(Fragmento fragmentoOrigen, Cuenta cuentaOrigen, long unidades, RuntimeException causa,
+            CompletableFuture<Void> resultado) {
+        ejecutar(fragmentoOrigen, () -> {
+            long sello = pasos.readLock();
+            try {
+                cuentaOrigen.creditoUnidades(unidades);
+                enTransito.addAndGet(-unidades);
+            } catch (RuntimeException e) {
+                // no se pudo devolver, el monto queda en tránsito
+                causa.addSuppressed(e);
+            } finally {
+                pasos.unlockRead(sello);
+            }
+            terminar(resultado, causa);
+        }, e -> {
+            causa.addSuppressed(e);
+            terminar(resultado, causa);
+        });
+    }
+
+    private static void ejecutar(Fragmento fragmento, Runnable tarea, Consumer<RuntimeException> siRechaza) {
+        try {
+            fragmento.executor.execute(tarea);
+        } catch (RejectedExecutionException e) {
+            siRechaza.accept(e);
+        }
+    }
+
+    private void terminar(CompletableFuture<Void> resultado, RuntimeException error) {
+        pendientes.decrement();
+        if (error == null) {
+            resultado.complete(null);
+        } else {
+            resultado.completeExceptionally(error);
+        }
+    }
+
+    // Deja de aceptar transferencias, espera a que terminen las aceptadas y detiene los hilos
+    @Override
+    public synchronized void close() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        while (pendientes.sum() != 0) {
+            LockSupport.parkNanos(PAUSA_NANOS);
+        }
+        for (Fragmento fragmento : fragmentos) {
+            fragmento.executor.shutdown();
+        }
+        try {
+            for (Fragmento fragmento : fragmentos) {
+                fragmento.executor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Los ids son consecutivos, así las cuentas se reparten parejo entre los fragmentos
+    int indiceFragmento(long id) {
+        return Math.floorMod(id, fragmentos.length);
+    }
+
+    private Fragmento fragmentoDe(long id) {
+        return fragmentos[indiceFragmento(id)];
+    }
+}
@@ -1,42 +1,480 @@
 package com.elianfm.junitapp.models;
 
 import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
 
 import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 // Uso lombok para evitar código boilerplate
 @Data
-@AllArgsConstructor
-@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Cuenta {
+    // Secuencia global de identificadores, define el orden en que se toman los
+    // locks de las cuentas en una transferencia (ver Banco.transferir)
+    private static final AtomicLong SECUENCIA = new AtomicLong();
+
     private String persona;
+    // El banco no entra en toString: el banco imprime sus cuentas
+    @ToString.Exclude
     private Banco banco;
     /*
     * Big Decimal es una clase que nos permite trabajar con números decimales de
     * alta precisión. La diferencia con double o float es que estos últimos no
     * pueden representar correctamente algunos números decimales. Por esto es
     * recomendable usar BigDecimal para operaciones financieras.
+    *
+    * Internamente el saldo se guarda como unidades mínimas en un long (ver
+    * Dinero), así debito y credito no crean objetos. getSaldo y setSaldo
+    * siguen trabajando con BigDecimal.
     */
-    private BigDecimal saldo;
+    private volatile long saldo;
+
+    /*
+     * Identidad de la cuenta: equals y hashCode usan solo el id, que no cambia
+     * nunca. Así comparar es O(1), no depende del saldo ni recorre el banco, y
+     * una cuenta se puede usar como clave de mapas, sets y cachés. Dos cuentas
+     * con la misma persona y el mismo saldo son cuentas distintas.
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Include
+    private final long id;
+
+    /*
+     * La mayoría de los accesos a una cuenta son lecturas del saldo, así que
+     * se usa un StampedLock: debito, credito y setSaldo toman el lock de
+     * escritura y getSaldo lee sin bloquear (lectura optimista validada con
+     * el sello, ver getSaldoUnidades). No es reentrante: con el lock tomado
+     * hay que usar las versiones SinLock.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final StampedLock lock = new StampedLock();
+
+    // Historial de movimientos, solo si se activó (ver activarHistorial)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile HistorialCuenta historial;
+
+    // Índice por saldo del banco que tiene la cuenta (ver IndiceSaldos)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile IndiceSaldos indiceSaldos;
+
+    // Cadena de versiones del saldo, de la más nueva a la más vieja (ver RelojVersiones)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile RelojVersiones relojVersiones;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile RelojVersiones.Version versiones;
+
+    // Diario del banco que tiene la cuenta (ver Banco.setDiario)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile Diario diario;
+
+    public Cuenta() {
+        this.id = SECUENCIA.incrementAndGet();
+    }
 
     public Cuenta(String persona, BigDecimal saldo) {
+        this();
+        this.persona = persona;
+        this.saldo = Dinero.aUnidades(saldo);
+    }
+
+    public Cuenta(String persona, Banco banco, BigDecimal saldo) {
+        this(persona, saldo);
+        this.banco = banco;
+    }
+
+    // Crea una cuenta con el saldo ya en unidades, sin pasar por BigDecimal
+    Cuenta(String persona, long saldo) {
+        this();
+        this.persona = persona;
+        this.saldo = saldo;
+    }
+
+    /*
+     * Recrea una cuenta con un id conocido, por ejemplo al reconstruir un banco
+     * desde el diario. La secuencia se adelanta para que las cuentas nuevas no
+     * repitan ese id.
+     */
+    Cuenta(long id, String persona, long saldo) {
+        SECUENCIA.accumulateAndGet(id, Math::max);
+        this.id = id;
         this.persona = persona;
         this.saldo = saldo;
     }
 
+    /*
+     * Si la cuenta está en un banco, el banco la vuelve a indexar con la
+     * persona nueva. Con diario el cambio se registra antes de hacerlo, con la
+     * cuenta bloqueada como el alta y la baja: así el registro no queda
+     * después de una baja ni se pierde entre el alta y el cambio.
+     */
+    public void setPersona(String persona) {
+        long sello = lock.writeLock();
+        try {
+            Diario diario = this.diario;
+            if (diario != null) {
+                diario.registrarPersona(this, persona);
+            }
+            this.persona = persona;
+        } finally {
+            lock.unlockWrite(sello);
+        }
+        Banco banco = this.banco;
+        if (banco != null) {
+            banco.reindexarPersona(this);
+        }
+    }
+
+    public BigDecimal getSaldo() {
+        return Dinero.aBigDecimal(getSaldoUnidades());
+    }
+
+    public void setSaldo(BigDecimal saldo) {
+        long nuevoSaldo = Dinero.aUnidades(saldo);
+        long sello = lock.writeLock();
+        try {
+            long diferencia = Dinero.restar(nuevoSaldo, this.saldo);
+            anotar(diferencia);
+            this.saldo = nuevoSaldo;
+            registrar(diferencia, siguienteVersion());
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    /*
+     * Desde acá cada débito, crédito o cambio de saldo queda registrado en el
+     * historial de la cuenta, con el saldo actual como saldo inicial. Si ya
+     * estaba activo no hace nada.
+     */
+    public void activarHistorial() {
+        activarHistorial(HistorialCuenta.EVENTOS_POR_INSTANTANEA);
+    }
+
+    public void activarHistorial(int eventosPorInstantanea) {
+        long sello = lock.writeLock();
+        try {
+            if (this.historial == null) {
+                this.historial = new HistorialCuenta(this.saldo, eventosPorInstantanea);
+            }
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    /*
+     * Lectura optimista: se lee el saldo sin tomar ningún lock y después se
+     * valida el sello. Si en el medio entró un débito o crédito la lectura se
+     * repite con el lock de lectura. Con pocas escrituras casi nunca hace
+     * falta, y los lectores no se frenan entre sí ni frenan a los que escriben.
+     *
+     * No se debe llamar con el lock de escritura de la cuenta tomado.
+     */
+    public long getSaldoUnidades() {
+        long sello = lock.tryOptimisticRead();
+        long saldo = this.saldo;
+        if (!lock.validate(sello)) {
+            sello = lock.readLock();
+            try {
+                saldo = this.saldo;
+            } finally {
+                lock.unlockRead(sello);
+            }
+        }
+        return saldo;
+    }
+
     public void debito(BigDecimal monto) {
-        BigDecimal nuevoSaldo = this.saldo.subtract(monto);
-        if(nuevoSaldo.compareTo(BigDecimal.ZERO) < 0) {
+        debitoUnidades(Dinero.aUnidades(monto));
+    }
+
+    public void credito(BigDecimal monto) {
+        creditoUnidades(Dinero.aUnidades(monto));
+    }
+
+    /*
+     * Igual que debito pero sin excepciones: si no alcanza el saldo devuelve
+     * DINERO_INSUFICIENTE y la cuenta queda igual. Sirve cuando los rechazos
+     * son frecuentes y lanzar una excepción por cada uno sale caro.
+     */
+    public ResultadoDebito intentarDebito(BigDecimal monto) {
+        return intentarDebitoUnidades(Dinero.aUnidades(monto));
+    }
+
+    public ResultadoDebito intentarDebitoUnidades(long monto) {
+        long sello = lock.writeLock();
+        try {
+            return intentarDebitoAnotadoSinLock(monto);
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    public void debitoUnidades(long monto) {
+        long sello = lock.writeLock();
+        try {
+            if (!intentarDebitoAnotadoSinLock(monto).aplicado()) {
+                throw new DineroInsuficienteException("Dinero insuficiente");
+            }
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    public void creditoUnidades(long monto) {
+        long sello = lock.writeLock();
+        try {
+            creditoAnotadoSinLock(monto);
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    /*
+     * Débito y crédito de las operaciones públicas: si la cuenta está en un
+     * banco con diario, el movimiento se valida y se registra antes de tocar
+     * el saldo, así un error del diario deja la cuenta como estaba.
+     */
+    ResultadoDebito intentarDebitoAnotadoSinLock(long monto) {
+        long diferencia = Dinero.restar(0, monto);
+        if (Dinero.sumar(this.saldo, diferencia) < 0) {
+            return ResultadoDebito.DINERO_INSUFICIENTE;
+        }
+        anotar(diferencia);
+        return intentarDebitoSinLock(monto);
+    }
+
+    void creditoAnotadoSinLock(long monto) {
+        // si el crédito desborda falla acá, antes de registrarlo
+        Dinero.sumar(this.saldo, monto);
+        anotar(monto);
+        creditoSinLock(monto);
+    }
+
+    private void anotar(long diferencia) {
+        Diario diario = this.diario;
+        if (diario != null && diferencia != 0) {
+            diario.registrarMovimiento(this, diferencia);
+        }
+    }
+
+    // Saldo sin lock, para quien ya tiene el lock de escritura de la cuenta
+    long saldoSinLock() {
+        return this.saldo;
+    }
+
+    // Aplica una diferencia que ya está en el diario, sin volver a registrarla (ver Diario.reconstruir)
+    void aplicarMovimiento(long diferencia) {
+        long sello = lock.writeLock();
+        try {
+            this.saldo = Dinero.sumar(this.saldo, diferencia);
+            registrar(diferencia, siguienteVersion());
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    /*
+     * Versiones sin lock para quien ya garantiza que es el único que escribe
+     * la cuenta (por ejemplo el hilo dueño de la partición en
+     * ProcesadorTransferencias). No escriben en el diario: quien las usa
+     * registra la operación antes (ver Banco.anotarTransferencia).
+     */
+    void debitoSinLock(long monto) {
+        debitoSinLock(monto, siguienteVersion());
+    }
+
+    ResultadoDebito intentarDebitoSinLock(long monto) {
+        return intentarDebitoSinLock(monto, siguienteVersion());
+    }
+
+    void creditoSinLock(long monto) {
+        creditoSinLock(monto, siguienteVersion());
+    }
+
+    /*
+     * Las mismas operaciones con el número de versión ya tomado, para que las
+     * dos cuentas de una transferencia queden en la misma versión (ver
+     * Banco.transferirBloqueando). Sin versiones activas el número se ignora.
+     */
+    void debitoSinLock(long monto, long version) {
+        if (!intentarDebitoSinLock(monto, version).aplicado()) {
             throw new DineroInsuficienteException("Dinero insuficiente");
         }
+    }
+
+    ResultadoDebito intentarDebitoSinLock(long monto, long version) {
+        long nuevoSaldo = Dinero.restar(this.saldo, monto);
+        if (nuevoSaldo < 0) {
+            return ResultadoDebito.DINERO_INSUFICIENTE;
+        }
         this.saldo = nuevoSaldo;
+        registrar(-monto, version);
+        return ResultadoDebito.APLICADO;
     }
 
-    public void credito(BigDecimal monto) {
-        this.saldo = this.saldo.add(monto);
+    void creditoSinLock(long monto, long version) {
+        this.saldo = Dinero.sumar(this.saldo, monto);
+        registrar(monto, version);
+    }
+
+    RelojVersiones getRelojVersiones() {
+        return this.relojVersiones;
+    }
+
+    // Número para la próxima escritura, se toma con la cuenta bloqueada
+    long siguienteVersion() {
+        RelojVersiones reloj = this.relojVersiones;
+        return reloj == null ? 0 : reloj.siguiente();
+    }
+
+    /*
+     * Empieza o deja de guardar versiones del saldo con el reloj de un banco.
+     * La primera versión tiene número 0, así la ve cualquier lectura.
+     */
+    void versionar(RelojVersiones reloj) {
+        long sello = lock.writeLock();
+        try {
+            this.versiones = new RelojVersiones.Version(this.saldo, 0, null);
+            this.relojVersiones = reloj;
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    void dejarDeVersionar(RelojVersiones reloj) {
+        long sello = lock.writeLock();
+        try {
+            if (this.relojVersiones == reloj) {
+                this.relojVersiones = null;
+                this.versiones = null;
+            }
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    /*
+     * Saldo de la cuenta en la versión dada, o VERSION_PODADA si ya no está.
+     * Si hay una escritura en curso se la espera, porque pudo tomar un número
+     * menor o igual a la versión pedida; las que empiezan después toman uno
+     * mayor y no hace falta esperarlas.
+     */
+    long saldoEnVersion(long version) {
+        long sello = lock.tryOptimisticRead();
+        RelojVersiones.Version actual = this.versiones;
+        if (!lock.validate(sello)) {
+            sello = lock.readLock();
+            try {
+                actual = this.versiones;
+            } finally {
+                lock.unlockRead(sello);
+            }
+        }
+        for (; actual != null; actual = actual.anterior) {
+            if (actual.numero <= version) {
+                return actual.saldo;
+            }
+        }
+        return RelojVersiones.VERSION_PODADA;
+    }
+
+    /*
+     * Empieza o deja de mantener la entrada de la cuenta en el índice de
+     * saldos de un banco. Se hace con la cuenta bloqueada para que ningún
+     * débito o crédito quede fuera del índice.
+     */
+    void indexar(IndiceSaldos indice) {
+        long sello = lock.writeLock();
+        try {
+            indice.agregar(this, this.saldo);
+            this.indiceSaldos = indice;
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    void desindexar(IndiceSaldos indice) {
+        long sello = lock.writeLock();
+        try {
+            indice.quitar(this, this.saldo);
+            if (this.indiceSaldos == indice) {
+                this.indiceSaldos = null;
+            }
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    Diario getDiario() {
+        return this.diario;
+    }
+
+    /*
+     * Empieza o deja de registrar los movimientos de la cuenta en el diario de
+     * su banco. El alta y la baja se registran con la cuenta bloqueada, así
+     * ningún movimiento queda antes del alta o después de la baja.
+     */
+    void usarDiario(Diario diario, boolean registrarAlta) {
+        long sello = lock.writeLock();
+        try {
+            if (registrarAlta) {
+                diario.registrarAlta(this, this.saldo);
+            }
+            this.diario = diario;
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    void dejarDeUsarDiario(Diario diario, boolean registrarBaja) {
+        long sello = lock.writeLock();
+        try {
+            if (this.diario == diario) {
+                if (registrarBaja) {
+                    diario.registrarBaja(this);
+                }
+                this.diario = null;
+            }
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    // Se llama después de cada cambio de saldo, con el saldo nuevo ya guardado
+    private void registrar(long diferencia, long version) {
+        HistorialCuenta historial = this.historial;
+        if (historial != null) {
+            historial.registrar(diferencia);
+        }
+        IndiceSaldos indice = this.indiceSaldos;
+        if (indice != null) {
+            indice.mover(this, this.saldo - diferencia, this.saldo);
+        }
+        RelojVersiones reloj = this.relojVersiones;
+        if (reloj != null) {
+            RelojVersiones.Version nueva = new RelojVersiones.Version(this.saldo, version, this.versiones);
+            this.versiones = nueva;
+            reloj.podar(nueva);
+        }
     }
 }
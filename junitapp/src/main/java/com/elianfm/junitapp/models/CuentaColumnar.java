@@ -0,0 +1,52 @@
+package com.elianfm.junitapp.models;
+
+import java.math.BigDecimal;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/*
+ * Vista de una cuenta de BancoColumnar. Solo guarda el banco, el slot y la
+ * generación del slot, los datos se leen y escriben directamente en las
+ * columnas del banco, así que crear una vista es barato y dos vistas de la
+ * misma cuenta son iguales. Una vez eliminada la cuenta la vista lanza
+ * IllegalStateException aunque el slot ya tenga otra cuenta.
+ */
+@Getter
+@EqualsAndHashCode
+public final class CuentaColumnar {
+    private final BancoColumnar banco;
+    private final int slot;
+    private final int generacion;
+
+    CuentaColumnar(BancoColumnar banco, int slot, int generacion) {
+        this.banco = banco;
+        this.slot = slot;
+        this.generacion = generacion;
+    }
+
+    public String getPersona() {
+        return banco.persona(slot, generacion);
+    }
+
+    public BigDecimal getSaldo() {
+        return Dinero.aBigDecimal(getSaldoUnidades());
+    }
+
+    public long getSaldoUnidades() {
+        return banco.saldoUnidades(slot, generacion);
+    }
+
+    public void debito(BigDecimal monto) {
+        banco.debito(slot, generacion, Dinero.aUnidades(monto));
+    }
+
+    public void credito(BigDecimal monto) {
+        banco.credito(slot, generacion, Dinero.aUnidades(monto));
+    }
+
+    @Override
+    public String toString() {
+        return "CuentaColumnar(persona=" + getPersona() + ", saldo=" + getSaldo() + ")";
+    }
+}
@@ -0,0 +1,159 @@
+package com.elianfm.junitapp.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+ * Devengamiento de intereses y comisiones de fin de día sobre todas las
+ * cuentas de un banco.
+ *
+ * El esquema tiene tramos por saldo: a cada cuenta se le aplica la tasa del
+ * tramo de mayor "desde" que no supere su saldo (sin tramo, o con saldo
+ * negativo, la tasa es 0). Después se cobra una comisión fija, que nunca deja
+ * la cuenta en negativo. La definición exacta es calcular(BigDecimal):
+ *   interes = saldo * tasa, redondeado a Dinero.ESCALA decimales con HALF_EVEN
+ *   comision = min(comision del esquema, saldo + interes), o 0 si eso es negativo
+ *   saldo nuevo = saldo + interes - comision
+ *
+ * calcular(long[], long[], long[]) hace la misma cuenta sobre arreglos de
+ * unidades sin crear objetos y da exactamente el mismo resultado. Las tasas
+ * tienen a lo sumo DECIMALES_TASA decimales; el saldo se parte en dos mitades
+ * para que los productos entren en un long y el redondeo se decide con el
+ * resto exacto. El cálculo de cada cuenta no tiene saltos que dependan del
+ * saldo: el redondeo se arma con aritmética de bits y el tramo, la comisión y
+ * el mínimo con selecciones (ternario, Math.min y Math.max) que el JIT
+ * compila a movimientos condicionales.
+ */
+public final class Devengamiento {
+
+    static final int DECIMALES_TASA = 9;
+    private static final long ESCALA_TASA = 1_000_000_000L;
+    private static final long MITAD = ESCALA_TASA / 2;
+
+    public record Tramo(BigDecimal desde, BigDecimal tasa) {
+    }
+
+    public record Resultado(int cuentas, BigDecimal intereses, BigDecimal comisiones) {
+    }
+
+    private final List<Tramo> tramos;
+    private final BigDecimal comision;
+    // Los mismos tramos en unidades, ordenados por desde
+    private final long[] desdes;
+    private final long[] tasas;
+    private final long comisionUnidades;
+
+    public Devengamiento(List<Tramo> tramos, BigDecimal comision) {
+        List<Tramo> ordenados = new ArrayList<>(tramos);
+        ordenados.sort(Comparator.comparing(Tramo::desde));
+        this.tramos = List.copyOf(ordenados);
+        this.comision = comision;
+        this.desdes = new long[ordenados.size()];
+        this.tasas = new long[ordenados.size()];
+        for (int i = 0; i < ordenados.size(); i++) {
+            Tramo tramo = ordenados.get(i);
+            if (tramo.desde().signum() < 0) {
+                throw new IllegalArgumentException("Los tramos empiezan en saldos no negativos");
+            }
+            if (tramo.tasa().signum() < 0 || tramo.tasa().compareTo(BigDecimal.ONE) > 0
+                    || tramo.tasa().stripTrailingZeros().scale() > DECIMALES_TASA) {
+                throw new IllegalArgumentException("Tasa inválida: " + tramo.tasa());
+            }
+            desdes[i] = Dinero.aUnidades(tramo.desde());
+            tasas[i] = tramo.tasa().movePointRight(DECIMALES_TASA).longValueExact();
+        }
+        if (comision.signum() < 0) {
+            throw new IllegalArgumentException("La comisión no puede ser negativa");
+        }
+        this.comisionUnidades = Dinero.aUnidades(comision);
+    }
+
+    // Saldo nuevo de una cuenta, con BigDecimal; es la definición del cálculo
+    public BigDecimal calcular(BigDecimal saldo) {
+        BigDecimal tasa = BigDecimal.ZERO;
+        for (Tramo tramo : tramos) {
+            if (saldo.compareTo(tramo.desde()) >= 0) {
+                tasa = tramo.tasa();
+            }
+        }
+        BigDecimal conInteres = saldo.add(saldo.multiply(tasa).setScale(Dinero.ESCALA, RoundingMode.HALF_EVEN));
+        BigDecimal cobrada = conInteres.signum() < 0 ? BigDecimal.ZERO : comision.min(conInteres);
+        return conInteres.subtract(cobrada);
+    }
+
+    /*
+     * Calcula intereses y comisiones (en unidades) de cada saldo. Los arreglos
+     * de salida deben tener el largo de saldos; los saldos no se modifican.
+     */
+    public void calcular(long[] saldos, long[] intereses, long[] comisiones) {
+        if (intereses.length != saldos.length || comisiones.length != saldos.length) {
+            throw new IllegalArgumentException("Los arreglos deben tener el mismo largo");
+        }
+        for (int i = 0; i < saldos.length; i++) {
+            long saldo = saldos[i];
+            long interes = interes(saldo, tasa(saldo));
+            long disponible = Dinero.sumar(saldo, interes);
+            intereses[i] = interes;
+            comisiones[i] = Math.min(comisionUnidades, Math.max(0, disponible));
+        }
+    }
+
+    private long tasa(long saldo) {
+        long tasa = 0;
+        for (int t = 0; t < desdes.length; t++) {
+            tasa = saldo >= desdes[t] ? tasas[t] : tasa;
+        }
+        return tasa;
+    }
+
+    /*
+     * saldo * tasa / ESCALA_TASA redondeado HALF_EVEN, con saldo >= 0 o tasa 0.
+     * Con tasa 0 los productos y el resto son 0 y el resultado es 0 sin un
+     * caso aparte. Se suma 1 si el resto pasa la mitad (MITAD - resto es
+     * negativo, su bit de signo es 1) o si es justo la mitad y el interés es
+     * impar.
+     */
+    static long interes(long saldo, long tasa) {
+        long alto = saldo / ESCALA_TASA;
+        long bajo = saldo % ESCALA_TASA;
+        // bajo * tasa < 10^18 y alto * tasa <= Long.MAX_VALUE / 10^9 * 10^9, ninguno desborda
+        long producto = bajo * tasa;
+        long interes = Dinero.sumar(alto * tasa, producto / ESCALA_TASA);
+        long resto = producto % ESCALA_TASA;
+        long mayor = (MITAD - resto) >>> 63;
+        long igual = ((resto ^ MITAD) - 1) >>> 63;
+        return interes + (mayor | (igual & interes & 1));
+    }
+
+    /*
+     * Aplica el devengamiento a todas las cuentas del banco a través de
+     * Banco.ajustarSaldos: las transferencias quedan detenidas mientras dura
+     * (como en Banco.resumenSaldos) para que cada cuenta reciba el interés
+     * sobre el saldo que realmente tiene, y con diario los ajustes se
+     * registran antes de aplicarlos.
+     */
+    public Resultado aplicar(Banco banco) {
+        long[][] calculados = new long[2][];
+        int cuentas = banco.ajustarSaldos((saldos, diferencias) -> {
+            long[] intereses = new long[saldos.length];
+            long[] comisiones = new long[saldos.length];
+            calcular(saldos, intereses, comisiones);
+            for (int i = 0; i < saldos.length; i++) {
+                diferencias[i] = intereses[i] - comisiones[i];
+            }
+            calculados[0] = intereses;
+            calculados[1] = comisiones;
+        });
+
+        long totalIntereses = 0;
+        long totalComisiones = 0;
+        for (int i = 0; i < cuentas; i++) {
+            totalIntereses = Dinero.sumar(totalIntereses, calculados[0][i]);
+            totalComisiones = Dinero.sumar(totalComisiones, calculados[1][i]);
+        }
+        return new Resultado(cuentas, Dinero.aBigDecimal(totalIntereses), Dinero.aBigDecimal(totalComisiones));
+    }
+}
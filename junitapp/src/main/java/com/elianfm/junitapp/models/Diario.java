@@ -0,0 +1,589 @@
+package com.elianfm.junitapp.models;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/*
+ * Diario de operaciones del banco: cada alta y baja de cuenta, cambio de
+ * persona, transferencia y cualquier otro cambio de saldo de una cuenta que
+ * está en un banco con diario (débitos, créditos y setSaldo hechos sobre la
+ * cuenta, devengamientos, cargas de movimientos) se escribe como un registro
+ * binario de tamaño fijo en archivos mapeados en memoria. El registro se
+ * escribe antes de modificar el saldo: si no se puede escribir (diario
+ * cerrado, error al crear un segmento) la operación no se aplica.
+ *
+ * El diario es un directorio de segmentos de registrosPorSegmento registros,
+ * cada uno en su archivo ("<primer registro>.diario"). Al llenarse un segmento
+ * se crea el siguiente, así el diario no tiene un tamaño máximo.
+ *
+ * Cada escritor toma el número de su registro con un CAS y escribe el
+ * registro sin locks; el encabezado (tipo y checksum) se escribe al final, un
+ * registro a medio escribir todavía tiene el encabezado en 0.
+ *
+ * El fsync (MappedByteBuffer.force) lo hace un hilo aparte por lotes: cada
+ * registrosPorSincronizacion registros, cada intervaloSincronizacion o en
+ * cuanto alguien espera con esperarDurable, lo que ocurra primero. Así muchas
+ * operaciones comparten un mismo fsync (group commit). Lo escrito después del
+ * último fsync se puede perder si se cae la máquina; quien necesita saber que
+ * su operación ya es durable la espera con esperarDurable (ver
+ * Banco.transferirDurable) o sincronizar.
+ *
+ * Formato de cada registro (TAMANO_REGISTRO bytes, big endian):
+ * 0      tipo (ALTA, BAJA, TRANSFERENCIA, MOVIMIENTO o PERSONA), 0 marca el final
+ * 1      largo en bytes de la persona (ALTA y PERSONA)
+ * 4      CRC32C del tipo, el largo y los bytes 8-63
+ * 8      id de la cuenta (origen en TRANSFERENCIA)
+ * 16     id de la cuenta destino (solo TRANSFERENCIA)
+ * 24     saldo inicial (ALTA), monto (TRANSFERENCIA) o diferencia (MOVIMIENTO) en unidades
+ * 32-63  persona en UTF-8 (ALTA y PERSONA)
+ *
+ * Al abrir un diario existente el final es el primer registro vacío o con el
+ * checksum incorrecto (una cola rota por una caída a mitad de escritura): lo
+ * que sigue se descarta y se escribe encima.
+ */
+public final class Diario implements Closeable {
+
+    static final int TAMANO_REGISTRO = 64;
+    static final int MAXIMO_PERSONA = 32;
+
+    static final byte ALTA = 1;
+    static final byte BAJA = 2;
+    static final byte TRANSFERENCIA = 3;
+    static final byte MOVIMIENTO = 4;
+    static final byte PERSONA = 5;
+
+    static final int REGISTROS_POR_SEGMENTO = 1 << 16;
+    private static final String EXTENSION = ".diario";
+
+    // Bit de siguiente que indica que el diario está cerrado
+    private static final long CERRADO = Long.MIN_VALUE;
+
+    private static final VarHandle ENCABEZADO = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.BIG_ENDIAN);
+
+    // Registro que se arma antes de copiarlo al segmento, uno por hilo
+    private static final class Borrador {
+        final byte[] registro = new byte[TAMANO_REGISTRO];
+        final ByteBuffer datos = ByteBuffer.wrap(registro);
+        final CRC32C crc = new CRC32C();
+
+        ByteBuffer limpio() {
+            Arrays.fill(registro, (byte) 0);
+            return datos;
+        }
+
+        long encabezado(byte tipo) {
+            registro[0] = tipo;
+            crc.reset();
+            crc.update(registro, 0, 2);
+            crc.update(registro, 8, TAMANO_REGISTRO - 8);
+            return ((long) tipo << 56) | ((long) (registro[1] & 0xFF) << 48) | crc.getValue();
+        }
+    }
+
+    private static final ThreadLocal<Borrador> BORRADORES = ThreadLocal.withInitial(Borrador::new);
+
+    private final Path directorio;
+    private final int registrosPorSegmento;
+    private final int registrosPorSincronizacion;
+    private final long intervaloSincronizacion;
+    private final Thread sincronizador;
+
+    // Número del próximo registro, con el bit CERRADO cuando no se aceptan más
+    private final AtomicLong siguiente;
+
+    /*
+     * Segmentos mapeados, por número de segmento. Se mapean con el lock del
+     * diario antes de entregar números de registro que caen en ellos; el
+     * sincronizador suelta los que ya están completos y sincronizados.
+     */
+    private volatile MappedByteBuffer[] segmentos = new MappedByteBuffer[0];
+
+    // Registros anteriores a este número están escritos y sincronizados
+    private volatile long durables;
+    // Solo lo usa el sincronizador: hasta acá los registros están completos
+    private long frontera;
+    private volatile UncheckedIOException errorSincronizacion;
+
+    // Hilos en esperarDurable, protegido por el lock de esperas
+    private final Object esperas = new Object();
+    private int esperando;
+
+    private Diario(Path directorio, int registrosPorSegmento, int registrosPorSincronizacion,
+            long intervaloSincronizacion, TimeUnit unidad) throws IOException {
+        Files.createDirectories(directorio);
+        this.directorio = directorio;
+        List<Path> archivos = segmentosExistentes(directorio);
+        long tamano = archivos.isEmpty() ? 0 : Files.size(archivos.get(0));
+        this.registrosPorSegmento = tamano < TAMANO_REGISTRO ? registrosPorSegmento
+                : (int) (tamano / TAMANO_REGISTRO);
+        this.registrosPorSincronizacion = registrosPorSincronizacion;
+        this.intervaloSincronizacion = unidad.toNanos(intervaloSincronizacion);
+
+        long fin = recuperar(archivos);
+        this.siguiente = new AtomicLong(fin);
+        this.frontera = fin;
+        this.durables = fin;
+
+        this.sincronizador = new Thread(this::sincronizarPeriodicamente, "diario-" + directorio.getFileName());
+        this.sincronizador.setDaemon(true);
+        this.sincronizador.start();
+    }
+
+    public static Diario abrir(Path directorio) throws IOException {
+        return abrir(directorio, 1024, 10, TimeUnit.MILLISECONDS);
+    }
+
+    public static Diario abrir(Path directorio, int registrosPorSincronizacion, long intervaloSincronizacion,
+            TimeUnit unidad) throws IOException {
+        return abrir(directorio, REGISTROS_POR_SEGMENTO, registrosPorSincronizacion, intervaloSincronizacion,
+                unidad);
+    }
+
+    // El tamaño de segmento solo se usa al crear el diario, uno existente sigue con el suyo
+    static Diario abrir(Path directorio, int registrosPorSegmento, int registrosPorSincronizacion,
+            long intervaloSincronizacion, TimeUnit unidad) throws IOException {
+        if (registrosPorSegmento < 1 || registrosPorSincronizacion < 1) {
+            throw new IllegalArgumentException("Tamaño de segmento o de lote inválido");
+        }
+        return new Diario(directorio, registrosPorSegmento, registrosPorSincronizacion, intervaloSincronizacion,
+                unidad);
+    }
+
+    private static List<Path> segmentosExistentes(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(archivo -> archivo.getFileName().toString().endsWith(EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /*
+     * Busca el final del diario validando cada registro. El resto del
+     * segmento donde termina se llena con ceros y los segmentos siguientes se
+     * borran, así nada de la cola rota puede reaparecer más adelante.
+     */
+    private long recuperar(List<Path> archivos) throws IOException {
+        byte[] registro = new byte[TAMANO_REGISTRO];
+        CRC32C crc = new CRC32C();
+        long fin = (long) archivos.size() * registrosPorSegmento;
+        int ultimo = archivos.size();
+
+        buscar:
+        for (int s = 0; s < archivos.size(); s++) {
+            if (!archivos.get(s).equals(archivoSegmento(s))) {
+                // falta un segmento en el medio, el diario termina antes
+                fin = (long) s * registrosPorSegmento;
+                ultimo = s;
+                break;
+            }
+            MappedByteBuffer segmento = mapear(archivos.get(s));
+            for (int r = 0; r < registrosPorSegmento; r++) {
+                segmento.get(r * TAMANO_REGISTRO, registro);
+                if (!registroValido(registro, crc)) {
+                    fin = (long) s * registrosPorSegmento + r;
+                    for (int i = r * TAMANO_REGISTRO; i < segmento.capacity(); i += Long.BYTES) {
+                        segmento.putLong(i, 0);
+                    }
+                    segmento.force();
+                    segmentos = new MappedByteBuffer[s + 1];
+                    segmentos[s] = segmento;
+                    ultimo = s + 1;
+                    break buscar;
+                }
+            }
+        }
+
+        for (int s = ultimo; s < archivos.size(); s++) {
+            Files.delete(archivos.get(s));
+        }
+        return fin;
+    }
+
+    private static boolean registroValido(byte[] registro, CRC32C crc) {
+        if (registro[0] < ALTA || registro[0] > PERSONA) {
+            return false;
+        }
+        crc.reset();
+        crc.update(registro, 0, 2);
+        crc.update(registro, 8, TAMANO_REGISTRO - 8);
+        return (int) crc.getValue() == ByteBuffer.wrap(registro).getInt(4);
+    }
+
+    private Path archivoSegmento(long segmento) {
+        return directorio.resolve(String.format("%020d%s", segmento * registrosPorSegmento, EXTENSION));
+    }
+
+    // El mapeo sigue siendo válido después de cerrar el canal
+    private MappedByteBuffer mapear(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return canal.map(FileChannel.MapMode.READ_WRITE, 0, (long) registrosPorSegmento * TAMANO_REGISTRO);
+        }
+    }
+
+    /*
+     * Las operaciones se registran con las cuentas bloqueadas (ver Cuenta y
+     * Banco.transferirBloqueando), así el orden del diario es el mismo en que
+     * se aplicaron a cada cuenta. Devuelven el número del registro, para
+     * esperarDurable.
+     */
+    long registrarAlta(Cuenta cuenta, long saldo) {
+        byte[] persona = persona(cuenta.getPersona());
+        ByteBuffer datos = BORRADORES.get().limpio();
+        datos.put(1, (byte) persona.length);
+        datos.putLong(8, cuenta.getId());
+        datos.putLong(24, saldo);
+        datos.put(32, persona);
+        return escribir(ALTA);
+    }
+
+    long registrarBaja(Cuenta cuenta) {
+        BORRADORES.get().limpio().putLong(8, cuenta.getId());
+        return escribir(BAJA);
+    }
+
+    long registrarPersona(Cuenta cuenta, String nuevaPersona) {
+        byte[] persona = persona(nuevaPersona);
+        ByteBuffer datos = BORRADORES.get().limpio();
+        datos.put(1, (byte) persona.length);
+        datos.putLong(8, cuenta.getId());
+        datos.put(32, persona);
+        return escribir(PERSONA);
+    }
+
+    long registrarTransferencia(Cuenta origen, Cuenta destino, long monto) {
+        ByteBuffer datos = BORRADORES.get().limpio();
+        datos.putLong(8, origen.getId());
+        datos.putLong(16, destino.getId());
+        datos.putLong(24, monto);
+        return escribir(TRANSFERENCIA);
+    }
+
+    long registrarMovimiento(Cuenta cuenta, long diferencia) {
+        ByteBuffer datos = BORRADORES.get().limpio();
+        datos.putLong(8, cuenta.getId());
+        datos.putLong(24, diferencia);
+        return escribir(MOVIMIENTO);
+    }
+
+    /*
+     * Registra un movimiento por cada diferencia distinta de 0 con números
+     * consecutivos: los segmentos se preparan antes, así que o se registran
+     * todos o ninguno.
+     */
+    long registrarMovimientos(Cuenta[] cuentas, long[] diferencias) {
+        int cantidad = 0;
+        for (long diferencia : diferencias) {
+            cantidad += diferencia != 0 ? 1 : 0;
+        }
+        if (cantidad == 0) {
+            return -1;
+        }
+        long numero = reservar(cantidad);
+        for (int i = 0; i < cuentas.length; i++) {
+            if (diferencias[i] != 0) {
+                ByteBuffer datos = BORRADORES.get().limpio();
+                datos.putLong(8, cuentas[i].getId());
+                datos.putLong(24, diferencias[i]);
+                escribir(numero++, MOVIMIENTO);
+            }
+        }
+        return numero - 1;
+    }
+
+    static byte[] persona(String texto) {
+        byte[] persona = texto == null ? new byte[0] : texto.getBytes(StandardCharsets.UTF_8);
+        if (persona.length > MAXIMO_PERSONA) {
+            throw new IllegalArgumentException(
+                    "La persona no puede ocupar más de " + MAXIMO_PERSONA + " bytes en el diario");
+        }
+        return persona;
+    }
+
+    private long escribir(byte tipo) {
+        long numero = reservar(1);
+        escribir(numero, tipo);
+        return numero;
+    }
+
+    // Copia el borrador del hilo al lugar del registro; el encabezado va al final
+    private void escribir(long numero, byte tipo) {
+        Borrador borrador = BORRADORES.get();
+        long encabezado = borrador.encabezado(tipo);
+        MappedByteBuffer segmento = segmentos[segmento(numero)];
+        int inicio = posicion(numero);
+        segmento.put(inicio + 8, borrador.registro, 8, TAMANO_REGISTRO - 8);
+        ENCABEZADO.setRelease(segmento, inicio, encabezado);
+        if ((numero + 1) % registrosPorSincronizacion == 0) {
+            LockSupport.unpark(sincronizador);
+        }
+    }
+
+    /*
+     * Toma cantidad números de registro consecutivos. Los segmentos donde caen
+     * se mapean antes del CAS: si mapear falla no se tomó ningún número y no
+     * queda un hueco en el diario.
+     */
+    private long reservar(int cantidad) {
+        while (true) {
+            long numero = siguiente.get();
+            if ((numero & CERRADO) != 0) {
+                throw new IllegalStateException("El diario está cerrado");
+            }
+            prepararSegmentos(segmento(numero), segmento(numero + cantidad - 1));
+            if (siguiente.compareAndSet(numero, numero + cantidad)) {
+                return numero;
+            }
+        }
+    }
+
+    private void prepararSegmentos(int desde, int hasta) {
+        MappedByteBuffer[] actuales = segmentos;
+        if (hasta < actuales.length && actuales[desde] != null && actuales[hasta] != null) {
+            return;
+        }
+        synchronized (this) {
+            actuales = segmentos;
+            if (hasta >= actuales.length) {
+                actuales = Arrays.copyOf(actuales, Math.max(hasta + 1, actuales.length * 2));
+            }
+            try {
+                for (int s = desde; s <= hasta; s++) {
+                    if (actuales[s] == null) {
+                        actuales[s] = mapear(archivoSegmento(s));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                segmentos = actuales;
+            }
+        }
+    }
+
+    private int segmento(long numero) {
+        return Math.toIntExact(numero / registrosPorSegmento);
+    }
+
+    private int posicion(long numero) {
+        return (int) (numero % registrosPorSegmento) * TAMANO_REGISTRO;
+    }
+
+    private void sincronizarPeriodicamente() {
+        while (true) {
+            boolean cerrando = (siguiente.get() & CERRADO) != 0;
+            long reservados = siguiente.get() & ~CERRADO;
+            try {
+                avanzar(reservados);
+                errorSincronizacion = null;
+            } catch (UncheckedIOException e) {
+                errorSincronizacion = e;
+            }
+            synchronized (esperas) {
+                esperas.notifyAll();
+                if (cerrando && frontera == reservados) {
+                    return;
+                }
+                if (esperando > 0) {
+                    continue;
+                }
+            }
+            LockSupport.parkNanos(this, intervaloSincronizacion);
+        }
+    }
+
+    /*
+     * Avanza la frontera sobre los registros ya completos (los que terminaron
+     * de escribir su encabezado), los sincroniza al disco y recién ahí los
+     * publica como durables. Un registro todavía en escritura detiene la
+     * frontera aunque los siguientes estén completos.
+     */
+    private void avanzar(long reservados) {
+        MappedByteBuffer[] actuales = segmentos;
+        long desde = frontera;
+        long hasta = desde;
+        while (hasta < reservados && (long) ENCABEZADO.getAcquire(actuales[segmento(hasta)], posicion(hasta)) != 0) {
+            hasta++;
+        }
+        if (hasta == desde) {
+            return;
+        }
+        for (int s = segmento(desde); s <= segmento(hasta - 1); s++) {
+            int inicio = s == segmento(desde) ? posicion(desde) : 0;
+            int fin = s == segmento(hasta - 1) ? posicion(hasta - 1) + TAMANO_REGISTRO
+                    : registrosPorSegmento * TAMANO_REGISTRO;
+            actuales[s].force(inicio, fin - inicio);
+        }
+        frontera = hasta;
+        durables = hasta;
+        // los segmentos completos y sincronizados ya no se escriben
+        if (segmento(hasta) > segmento(desde)) {
+            synchronized (this) {
+                for (int s = segmento(desde); s < segmento(hasta); s++) {
+                    segmentos[s] = null;
+                }
+            }
+        }
+    }
+
+    /*
+     * Espera a que el registro (y todos los anteriores) estén sincronizados
+     * al disco. Los que esperan a la vez comparten el mismo fsync.
+     */
+    public void esperarDurable(long registro) {
+        if (durables > registro) {
+            return;
+        }
+        boolean interrumpido = false;
+        synchronized (esperas) {
+            esperando++;
+            try {
+                LockSupport.unpark(sincronizador);
+                while (durables <= registro) {
+                    UncheckedIOException error = errorSincronizacion;
+                    if (error != null) {
+                        throw error;
+                    }
+                    if (!sincronizador.isAlive()) {
+                        throw new IllegalStateException("El diario está cerrado");
+                    }
+                    try {
+                        esperas.wait();
+                    } catch (InterruptedException e) {
+                        interrumpido = true;
+                    }
+                }
+            } finally {
+                esperando--;
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Espera a que todo lo registrado hasta ahora sea durable
+    public void sincronizar() {
+        long reservados = siguiente.get() & ~CERRADO;
+        if (reservados > 0) {
+            esperarDurable(reservados - 1);
+        }
+    }
+
+    /*
+     * Recorre el diario y devuelve un banco con el estado que tenía al escribir
+     * el último registro. Las cuentas recuperan sus ids originales, por lo que
+     * el banco devuelto ya queda escribiendo en este mismo diario.
+     */
+    public Banco reconstruir(String nombre) {
+        sincronizar();
+        long fin = durables;
+        Banco banco = new Banco(nombre);
+        byte[] registro = new byte[TAMANO_REGISTRO];
+        ByteBuffer datos = ByteBuffer.wrap(registro);
+        CRC32C crc = new CRC32C();
+        MappedByteBuffer segmento = null;
+
+        for (long numero = 0; numero < fin; numero++) {
+            if (segmento == null || posicion(numero) == 0) {
+                segmento = segmentoParaLeer(segmento(numero));
+            }
+            segmento.get(posicion(numero), registro);
+            if (!registroValido(registro, crc)) {
+                throw registroInvalido(numero);
+            }
+            long id = datos.getLong(8);
+            switch (registro[0]) {
+                case ALTA -> banco.addCuenta(new Cuenta(id, leerPersona(registro), datos.getLong(24)));
+                case BAJA -> banco.buscarPorId(id).ifPresent(banco::removeCuenta);
+                case PERSONA -> cuentaRegistrada(banco, id, numero).setPersona(leerPersona(registro));
+                case TRANSFERENCIA -> {
+                    Cuenta origen = cuentaRegistrada(banco, id, numero);
+                    Cuenta destino = cuentaRegistrada(banco, datos.getLong(16), numero);
+                    banco.transferirUnidades(origen, destino, datos.getLong(24));
+                }
+                case MOVIMIENTO -> cuentaRegistrada(banco, id, numero).aplicarMovimiento(datos.getLong(24));
+                default -> throw registroInvalido(numero);
+            }
+        }
+
+        banco.continuarDiario(this);
+        return banco;
+    }
+
+    private MappedByteBuffer segmentoParaLeer(int numero) {
+        try (FileChannel canal = FileChannel.open(archivoSegmento(numero), StandardOpenOption.READ)) {
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String leerPersona(byte[] registro) {
+        int largo = registro[1];
+        return largo == 0 ? null : new String(registro, 32, largo, StandardCharsets.UTF_8);
+    }
+
+    private static Cuenta cuentaRegistrada(Banco banco, long id, long numero) {
+        return banco.buscarPorId(id).orElseThrow(() -> registroInvalido(numero));
+    }
+
+    private static IllegalStateException registroInvalido(long numero) {
+        return new IllegalStateException("Registro inválido en la posición " + numero + " del diario");
+    }
+
+    public long cantidadRegistros() {
+        return siguiente.get() & ~CERRADO;
+    }
+
+    // Cantidad de registros ya sincronizados al disco
+    long registrosDurables() {
+        return durables;
+    }
+
+    List<Path> archivosSegmentos() throws IOException {
+        return new ArrayList<>(segmentosExistentes(directorio));
+    }
+
+    // Deja de aceptar registros, espera a que se sincronicen los que ya se tomaron y termina el hilo
+    @Override
+    public void close() throws IOException {
+        siguiente.getAndUpdate(numero -> numero | CERRADO);
+        LockSupport.unpark(sincronizador);
+        boolean interrumpido = false;
+        while (sincronizador.isAlive()) {
+            try {
+                sincronizador.join();
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+        UncheckedIOException error = errorSincronizacion;
+        if (error != null) {
+            throw error.getCause();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.elianfm.junitapp.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/*
+ * Representación de punto fijo para los montos: un long con la cantidad de
+ * unidades mínimas (1 unidad = 0.00001). Así débitos y créditos son sumas y
+ * restas de primitivos sin crear objetos, y BigDecimal solo aparece en los
+ * bordes de la API (constructores, getters y parámetros públicos).
+ *
+ * Se usan 5 decimales porque es la precisión con la que ya trabajan las cuentas
+ * (por ejemplo 1000.12345). Con un long se pueden representar saldos de hasta
+ * unos 92 billones (9.2 * 10^13) sin desbordar.
+ */
+public final class Dinero {
+
+    public static final int ESCALA = 5;
+
+    private Dinero() {
+    }
+
+    /*
+     * Convierte un BigDecimal a unidades mínimas. Lanza ArithmeticException si
+     * el monto tiene más de ESCALA decimales o no cabe en un long, nunca
+     * redondea en silencio.
+     */
+    public static long aUnidades(BigDecimal monto) {
+        return monto.setScale(ESCALA, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal aBigDecimal(long unidades) {
+        return BigDecimal.valueOf(unidades, ESCALA);
+    }
+
+    // Math.addExact y Math.subtractExact lanzan ArithmeticException si hay desborde
+    public static long sumar(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long restar(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+}
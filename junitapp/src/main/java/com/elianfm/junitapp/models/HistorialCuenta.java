@@ -0,0 +1,113 @@
+package com.elianfm.junitapp.models;
+
+import java.util.Arrays;
+
+/*
+ * Historial de movimientos de una cuenta (ver Cuenta.activarHistorial). Cada
+ * débito, crédito o cambio de saldo se guarda como un evento: la diferencia de
+ * saldo en unidades, positiva o negativa, en un long. Los eventos van en
+ * bloques de TAMANO_BLOQUE que se agregan a medida que hacen falta, nunca se
+ * copian.
+ *
+ * Cada eventosPorInstantanea eventos se guarda además el saldo resultante.
+ * Para saber el saldo después de cualquier evento alcanza con la instantánea
+ * anterior y a lo sumo eventosPorInstantanea - 1 eventos. reproducir() rehace
+ * todo el historial desde el saldo inicial y controla cada instantánea.
+ */
+public final class HistorialCuenta {
+
+    static final int EVENTOS_POR_INSTANTANEA = 1024;
+    private static final int BITS_BLOQUE = 14;
+    private static final int TAMANO_BLOQUE = 1 << BITS_BLOQUE;
+    private static final int MASCARA_BLOQUE = TAMANO_BLOQUE - 1;
+
+    private final int eventosPorInstantanea;
+    private long[][] bloques = new long[0][];
+    private long cantidad;
+    // instantaneas[k] es el saldo después de k * eventosPorInstantanea eventos
+    private long[] instantaneas = new long[16];
+    private long saldo;
+
+    HistorialCuenta(long saldoInicial, int eventosPorInstantanea) {
+        if (eventosPorInstantanea < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un evento por instantánea");
+        }
+        this.eventosPorInstantanea = eventosPorInstantanea;
+        this.instantaneas[0] = saldoInicial;
+        this.saldo = saldoInicial;
+    }
+
+    synchronized void registrar(long diferencia) {
+        int bloque = (int) (cantidad >>> BITS_BLOQUE);
+        if (bloque == bloques.length) {
+            bloques = Arrays.copyOf(bloques, bloques.length + 1);
+            bloques[bloque] = new long[TAMANO_BLOQUE];
+        }
+        bloques[bloque][(int) (cantidad & MASCARA_BLOQUE)] = diferencia;
+        cantidad++;
+        saldo = Dinero.sumar(saldo, diferencia);
+
+        if (cantidad % eventosPorInstantanea == 0) {
+            int instantanea = (int) (cantidad / eventosPorInstantanea);
+            if (instantanea == instantaneas.length) {
+                instantaneas = Arrays.copyOf(instantaneas, instantaneas.length * 2);
+            }
+            instantaneas[instantanea] = saldo;
+        }
+    }
+
+    public synchronized long cantidadEventos() {
+        return cantidad;
+    }
+
+    public synchronized long saldoInicialUnidades() {
+        return instantaneas[0];
+    }
+
+    // Diferencia de saldo del evento número "evento" (desde 0)
+    public synchronized long evento(long evento) {
+        if (evento < 0 || evento >= cantidad) {
+            throw new IndexOutOfBoundsException("No existe el evento " + evento);
+        }
+        return leer(evento);
+    }
+
+    // Saldo después de los primeros "eventos" eventos: la última instantánea más la cola que falta
+    public synchronized long saldoEnUnidades(long eventos) {
+        if (eventos < 0 || eventos > cantidad) {
+            throw new IndexOutOfBoundsException("No existe el evento " + eventos);
+        }
+        long instantanea = eventos / eventosPorInstantanea;
+        long acumulado = instantaneas[(int) instantanea];
+        for (long e = instantanea * eventosPorInstantanea; e < eventos; e++) {
+            acumulado = Dinero.sumar(acumulado, leer(e));
+        }
+        return acumulado;
+    }
+
+    /*
+     * Rehace el saldo desde el inicial aplicando todos los eventos en orden y
+     * controla que coincida con cada instantánea. Devuelve el saldo final.
+     */
+    public synchronized long reproducir() {
+        long acumulado = instantaneas[0];
+        long evento = 0;
+        for (int b = 0; b < bloques.length && evento < cantidad; b++) {
+            long[] bloque = bloques[b];
+            int hasta = (int) Math.min(TAMANO_BLOQUE, cantidad - evento);
+            for (int i = 0; i < hasta; i++) {
+                acumulado = Dinero.sumar(acumulado, bloque[i]);
+                evento++;
+                if (evento % eventosPorInstantanea == 0
+                        && instantaneas[(int) (evento / eventosPorInstantanea)] != acumulado) {
+                    throw new IllegalStateException("El historial no coincide con la instantánea del evento " + evento);
+                }
+            }
+        }
+        return acumulado;
+    }
+
+    private long leer(long evento) {
+        return bloques[(int) (evento >>> BITS_BLOQUE)][(int) (evento & MASCARA_BLOQUE)];
+    }
+}
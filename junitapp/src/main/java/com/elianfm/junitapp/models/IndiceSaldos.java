@@ -0,0 +1,78 @@
+package com.elianfm.junitapp.models;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+ * Índice de las cuentas de un banco ordenado por saldo (ver
+ * Banco.activarIndiceSaldos y Banco.mayoresSaldos). Es un skip list con
+ * clave (saldo, id): el id desempata cuentas con el mismo saldo, así cada
+ * cuenta tiene una sola entrada. Buscar el comienzo de un rango es O(log n).
+ *
+ * Cada débito o crédito de una cuenta indexada mueve su entrada (ver
+ * Cuenta.registrar), siempre con la cuenta bloqueada, así que los cambios de
+ * una misma cuenta llegan en orden. Primero se agrega la clave nueva y
+ * después se quita la vieja: una consulta concurrente nunca pierde la cuenta,
+ * a lo sumo la encuentra dos veces y se descarta la repetida.
+ *
+ * Las consultas son débilmente consistentes, como los iteradores de
+ * ConcurrentSkipListMap: no frenan las transferencias y pueden ver saldos de
+ * momentos distintos. Para una foto exacta está Banco.resumenSaldos.
+ */
+final class IndiceSaldos {
+
+    private record Clave(long saldo, long id) implements Comparable<Clave> {
+
+        @Override
+        public int compareTo(Clave otra) {
+            int porSaldo = Long.compare(saldo, otra.saldo);
+            return porSaldo != 0 ? porSaldo : Long.compare(id, otra.id);
+        }
+    }
+
+    private final ConcurrentSkipListMap<Clave, Cuenta> cuentas = new ConcurrentSkipListMap<>();
+
+    void agregar(Cuenta cuenta, long saldo) {
+        cuentas.put(new Clave(saldo, cuenta.getId()), cuenta);
+    }
+
+    void quitar(Cuenta cuenta, long saldo) {
+        cuentas.remove(new Clave(saldo, cuenta.getId()));
+    }
+
+    void mover(Cuenta cuenta, long saldoAnterior, long saldoNuevo) {
+        if (saldoAnterior != saldoNuevo) {
+            agregar(cuenta, saldoNuevo);
+            quitar(cuenta, saldoAnterior);
+        }
+    }
+
+    // Las n cuentas de mayor saldo, de mayor a menor
+    List<Cuenta> mayores(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("La cantidad no puede ser negativa");
+        }
+        Set<Cuenta> resultado = new LinkedHashSet<>();
+        for (Cuenta cuenta : cuentas.descendingMap().values()) {
+            if (resultado.size() == n) {
+                break;
+            }
+            resultado.add(cuenta);
+        }
+        return List.copyOf(resultado);
+    }
+
+    // Cuentas con saldo entre desde y hasta (inclusive), de menor a mayor
+    List<Cuenta> entre(long desde, long hasta) {
+        if (desde > hasta) {
+            return List.of();
+        }
+        Collection<Cuenta> rango = cuentas
+                .subMap(new Clave(desde, Long.MIN_VALUE), true, new Clave(hasta, Long.MAX_VALUE), true)
+                .values();
+        return List.copyOf(new LinkedHashSet<>(rango));
+    }
+}
@@ -0,0 +1,245 @@
+package com.elianfm.junitapp.models;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Instantánea binaria de un banco completo con todas sus cuentas, para
+ * guardarlo y restaurarlo rápido sin reconstruirlo desde los datos de origen.
+ *
+ * Formato (versión 1), todos los números en big endian:
+ * int    MAGICO
+ * short  versión
+ * int    largo del nombre del banco + bytes UTF-8 (-1 si no tiene nombre)
+ * int    cantidad de personas distintas, luego por cada una:
+ *        int largo + bytes UTF-8 (tabla de strings)
+ * int    cantidad de cuentas, luego por cada una:
+ *        long id, int índice de la persona en la tabla (-1 si no tiene), long saldo en unidades
+ *
+ * Se escribe y se lee por FileChannel con un ByteBuffer directo, sin crear
+ * objetos por cuenta más allá de la propia Cuenta. La versión va en la cabecera
+ * para que al cambiar el formato se puedan seguir leyendo las instantáneas
+ * viejas (cargar elige el lector según la versión).
+ *
+ * Las cuentas y sus saldos se copian con las transferencias del banco
+ * detenidas (ver Banco.conTransferenciasDetenidas), así la instantánea no ve
+ * una transferencia a medio aplicar ni un alta o baja en el medio; el archivo
+ * se escribe después, con las transferencias andando otra vez. Un débito o
+ * crédito hecho directamente sobre una cuenta no pasa por el banco y no se
+ * detiene.
+ *
+ * El archivo se escribe en uno temporal de la misma carpeta, se fuerza a disco
+ * y recién entonces reemplaza al anterior con un movimiento atómico: si la
+ * escritura falla a la mitad la instantánea anterior queda intacta.
+ */
+public final class Instantanea {
+
+    static final int MAGICO = 0x424E434F; // "BNCO"
+    static final short VERSION_ACTUAL = 1;
+
+    private static final int TAMANO_BUFFER = 1 << 20;
+
+    private Instantanea() {
+    }
+
+    // Cuentas copiadas en un mismo instante, en arreglos paralelos
+    private record Copia(String nombre, long[] ids, String[] personas, long[] saldos) {
+    }
+
+    public static void guardar(Banco banco, Path archivo) throws IOException {
+        Copia copia = banco.conTransferenciasDetenidas(cuentas -> {
+            long[] ids = new long[cuentas.size()];
+            String[] personasCuentas = new String[cuentas.size()];
+            long[] saldos = new long[cuentas.size()];
+            int i = 0;
+            for (Cuenta cuenta : cuentas) {
+                ids[i] = cuenta.getId();
+                personasCuentas[i] = cuenta.getPersona();
+                saldos[i++] = cuenta.getSaldoUnidades();
+            }
+            return new Copia(banco.getNombre(), ids, personasCuentas, saldos);
+        });
+
+        List<String> personas = new ArrayList<>();
+        Map<String, Integer> indices = new HashMap<>();
+        for (String persona : copia.personas()) {
+            if (persona != null) {
+                indices.computeIfAbsent(persona, p -> {
+                    personas.add(p);
+                    return personas.size() - 1;
+                });
+            }
+        }
+
+        Path temporal = Files.createTempFile(archivo.toAbsolutePath().getParent(), archivo.getFileName().toString(),
+                ".tmp");
+        try {
+            escribir(temporal, copia, personas, indices);
+            Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private static void escribir(Path archivo, Copia copia, List<String> personas, Map<String, Integer> indices)
+            throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Escritor escritor = new Escritor(canal);
+            escritor.asegurar(Integer.BYTES + Short.BYTES);
+            escritor.buffer.putInt(MAGICO).putShort(VERSION_ACTUAL);
+            escritor.escribirString(copia.nombre());
+
+            escritor.asegurar(Integer.BYTES);
+            escritor.buffer.putInt(personas.size());
+            for (String persona : personas) {
+                escritor.escribirString(persona);
+            }
+
+            escritor.asegurar(Integer.BYTES);
+            escritor.buffer.putInt(copia.ids().length);
+            for (int i = 0; i < copia.ids().length; i++) {
+                String persona = copia.personas()[i];
+                escritor.asegurar(Long.BYTES + Integer.BYTES + Long.BYTES);
+                escritor.buffer.putLong(copia.ids()[i])
+                        .putInt(persona == null ? -1 : indices.get(persona))
+                        .putLong(copia.saldos()[i]);
+            }
+            escritor.vaciar();
+            canal.force(true);
+        }
+    }
+
+    public static Banco cargar(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            Lector lector = new Lector(canal);
+            lector.asegurar(Integer.BYTES + Short.BYTES);
+            if (lector.buffer.getInt() != MAGICO) {
+                throw new IOException("El archivo no es una instantánea de banco: " + archivo);
+            }
+            short version = lector.buffer.getShort();
+            return switch (version) {
+                case 1 -> cargarVersion1(lector);
+                default -> throw new IOException("Versión de instantánea no soportada: " + version);
+            };
+        }
+    }
+
+    private static Banco cargarVersion1(Lector lector) throws IOException {
+        Banco banco = new Banco(lector.leerString());
+
+        lector.asegurar(Integer.BYTES);
+        String[] personas = new String[lector.buffer.getInt()];
+        for (int i = 0; i < personas.length; i++) {
+            personas[i] = lector.leerString();
+        }
+
+        lector.asegurar(Integer.BYTES);
+        int cantidad = lector.buffer.getInt();
+        for (int i = 0; i < cantidad; i++) {
+            lector.asegurar(Long.BYTES + Integer.BYTES + Long.BYTES);
+            long id = lector.buffer.getLong();
+            int persona = lector.buffer.getInt();
+            long saldo = lector.buffer.getLong();
+            banco.addCuenta(new Cuenta(id, persona < 0 ? null : personas[persona], saldo));
+        }
+        return banco;
+    }
+
+    private static final class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+
+        Escritor(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        // Deja al menos n bytes libres en el buffer, escribiendo lo acumulado si hace falta
+        void asegurar(int n) throws IOException {
+            if (buffer.remaining() < n) {
+                vaciar();
+            }
+        }
+
+        void vaciar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        // null se escribe con largo -1 para distinguirlo del string vacío
+        void escribirString(String texto) throws IOException {
+            if (texto == null) {
+                asegurar(Integer.BYTES);
+                buffer.putInt(-1);
+                return;
+            }
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            asegurar(Integer.BYTES);
+            buffer.putInt(bytes.length);
+            if (bytes.length > buffer.capacity()) {
+                vaciar();
+                ByteBuffer grande = ByteBuffer.wrap(bytes);
+                while (grande.hasRemaining()) {
+                    canal.write(grande);
+                }
+                return;
+            }
+            asegurar(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static final class Lector {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+
+        Lector(FileChannel canal) {
+            this.canal = canal;
+            buffer.flip();
+        }
+
+        // Garantiza que haya al menos n bytes sin leer en el buffer
+        void asegurar(int n) throws IOException {
+            if (buffer.remaining() >= n) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < n) {
+                if (canal.read(buffer) < 0) {
+                    throw new IOException("La instantánea está incompleta");
+                }
+            }
+            buffer.flip();
+        }
+
+        String leerString() throws IOException {
+            asegurar(Integer.BYTES);
+            int largo = buffer.getInt();
+            if (largo < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[largo];
+            int leidos = 0;
+            while (leidos < bytes.length) {
+                asegurar(1);
+                int parte = Math.min(buffer.remaining(), bytes.length - leidos);
+                buffer.get(bytes, leidos, parte);
+                leidos += parte;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.elianfm.junitapp.models;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+
+/*
+ * Modo alternativo de ejecución de las transferencias de un banco, pensado para
+ * cuando muchos hilos transfieren sobre las mismas cuentas y los locks de
+ * Banco.transferir se vuelven el cuello de botella.
+ *
+ * Las cuentas se reparten en particiones por id. Cada partición tiene un hilo
+ * dueño, el único que escribe los saldos de sus cuentas, así debito y credito
+ * se aplican sin locks. Los productores publican la transferencia en un anillo
+ * preasignado de la partición de la cuenta origen y el resultado se entrega por
+ * un callback (o un CompletableFuture) cuando se aplicó.
+ *
+ * Si la cuenta destino es de otra partición, el hilo de origen debita y publica
+ * el crédito en el anillo de la partición destino. Mientras tanto el dinero
+ * está en tránsito: ninguna cuenta lo tiene, por eso Banco.resumenSaldos puede
+ * dar un total menor mientras hay transferencias en curso.
+ *
+ * Como en Banco.transferir, el desborde del crédito se valida antes de
+ * debitar. Con el destino en otra partición esa validación usa el último
+ * saldo visible y otros créditos en tránsito pueden hacerlo desbordar igual:
+ * en ese caso la partición destino registra la vuelta en el diario y devuelve
+ * el monto a la partición origen, que lo acredita y completa la transferencia
+ * con el error.
+ *
+ * Mientras el procesador está abierto las cuentas del banco solo se deben
+ * modificar a través de él. Las transferencias con el mismo origen se aplican
+ * en el orden en que se publicaron.
+ */
+public final class ProcesadorTransferencias implements AutoCloseable {
+
+    // Recibe null si la transferencia se aplicó o el error que la rechazó
+    @FunctionalInterface
+    public interface AlCompletar {
+        void completar(RuntimeException error);
+    }
+
+    private static final int CAPACIDAD = 1 << 16;
+    private static final int LOTE = 256;
+    private static final int ESPERAS_ACTIVAS = 1_000;
+    private static final long PAUSA_NANOS = 50_000;
+
+    private static final byte TRANSFERENCIA = 1;
+    private static final byte CREDITO = 2;
+    private static final byte DEVOLUCION = 3;
+
+    private final Banco banco;
+    private final Particion[] particiones;
+    // Transferencias publicadas que todavía no se completaron, close espera a que lleguen a 0
+    private final LongAdder pendientes = new LongAdder();
+    private volatile boolean cerrado;
+
+    public ProcesadorTransferencias(Banco banco) {
+        this(banco, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), CAPACIDAD);
+    }
+
+    public ProcesadorTransferencias(Banco banco, int particiones, int capacidad) {
+        if (particiones < 1) {
+            throw new IllegalArgumentException("Se necesita al menos una partición");
+        }
+        if (capacidad < 2 || Integer.bitCount(capacidad) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser una potencia de 2");
+        }
+        this.banco = Objects.requireNonNull(banco);
+        this.particiones = new Particion[particiones];
+        for (int i = 0; i < particiones; i++) {
+            this.particiones[i] = new Particion(capacidad);
+        }
+        for (int i = 0; i < particiones; i++) {
+            Thread hilo = new Thread(this.particiones[i], "transferencias-" + banco.getNombre() + "-" + i);
+            hilo.setDaemon(true);
+            this.particiones[i].hilo = hilo;
+        }
+        // se arrancan después de crear todos los hilos, así cada uno ya ve los de las demás particiones
+        for (Particion particion : this.particiones) {
+            particion.hilo.start();
+        }
+    }
+
+    public CompletableFuture<Void> transferir(Cuenta origen, Cuenta destino, BigDecimal monto) {
+        CompletableFuture<Void> futuro = new CompletableFuture<>();
+        transferirUnidades(origen, destino, Dinero.aUnidades(monto), error -> {
+            if (error == null) {
+                futuro.complete(null);
+            } else {
+                futuro.completeExceptionally(error);
+            }
+        });
+        return futuro;
+    }
+
+    /*
+     * Publica la transferencia y vuelve enseguida. Solo espera si el anillo de
+     * la partición está lleno, hasta que su hilo libere lugar. El callback se
+     * ejecuta en el hilo de la partición, no debe bloquearse.
+     */
+    public void transferirUnidades(Cuenta origen, Cuenta destino, long monto, AlCompletar alCompletar) {
+        Objects.requireNonNull(origen, "La cuenta origen es obligatoria");
+        Objects.requireNonNull(destino, "La cuenta destino es obligatoria");
+        // se cuenta antes de mirar cerrado, así close nunca deja de esperar una
+        // transferencia que sí se publicó
+        pendientes.increment();
+        if (cerrado) {
+            pendientes.decrement();
+            throw new IllegalStateException("El procesador de transferencias está cerrado");
+        }
+        particionDe(origen).publicar(TRANSFERENCIA, origen, destino, monto, alCompletar);
+    }
+
+    // Deja de aceptar transferencias, espera a que se completen las publicadas y detiene los hilos
+    @Override
+    public synchronized void close() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        while (pendientes.sum() != 0) {
+            LockSupport.parkNanos(PAUSA_NANOS);
+        }
+        for (Particion particion : particiones) {
+            particion.detener = true;
+            LockSupport.unpark(particion.hilo);
+        }
+        try {
+            for (Particion particion : particiones) {
+                particion.hilo.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Particion particionDe(Cuenta cuenta) {
+        return particiones[Math.floorMod(cuenta.getId(), particiones.length)];
+    }
+
+    private void completar(AlCompletar alCompletar, RuntimeException error) {
+        try {
+            if (alCompletar != null) {
+                alCompletar.completar(error);
+            }
+        } catch (RuntimeException e) {
+            // un callback que falla no puede detener el hilo de la partición
+        } finally {
+            pendientes.decrement();
+        }
+    }
+
+    // Crédito o devolución que no entró en el anillo lleno de otra partición, se reintenta más tarde
+    private record Desbordado(Particion particion, byte tipo, Cuenta origen, Cuenta destino, long monto,
+            AlCompletar alCompletar) {
+    }
+
+    /*
+     * Anillo de varios productores y un consumidor. Cada productor reserva una
+     * secuencia, escribe los campos de esa posición y la marca como publicada
+     * en publicadas; el consumidor lee en orden mientras la posición siguiente
+     * tenga su secuencia publicada. Los datos van en arreglos paralelos creados
+     * una sola vez, publicar no crea objetos.
+     */
+    private final class Particion implements Runnable {
+        private final int capacidad;
+        private final int mascara;
+        private final byte[] tipos;
+        private final Cuenta[] origenes;
+        private final Cuenta[] destinos;
+        private final long[] montos;
+        private final AlCompletar[] callbacks;
+        private final AtomicLongArray publicadas;
+        private final AtomicLong siguiente = new AtomicLong();
+        // Solo la escribe el hilo de la partición
+        private volatile long consumidas;
+
+        // Solo la usa el hilo de la partición
+        private final ArrayDeque<Desbordado> desbordados = new ArrayDeque<>();
+
+        private Thread hilo;
+        private volatile boolean detener;
+
+        Particion(int capacidad) {
+            this.capacidad = capacidad;
+            this.mascara = capacidad - 1;
+            this.tipos = new byte[capacidad];
+            this.origenes = new Cuenta[capacidad];
+            this.destinos = new Cuenta[capacidad];
+            this.montos = new long[capacidad];
+            this.callbacks = new AlCompletar[capacidad];
+            this.publicadas = new AtomicLongArray(capacidad);
+            for (int i = 0; i < capacidad; i++) {
+                publicadas.set(i, -1);
+            }
+        }
+
+        void publicar(byte tipo, Cuenta origen, Cuenta destino, long monto, AlCompletar alCompletar) {
+            long secuencia = siguiente.getAndIncrement();
+            while (secuencia - consumidas >= capacidad) {
+                // anillo lleno, se espera a que el hilo de la partición libere la posición
+                Thread.yield();
+            }
+            escribir(secuencia, tipo, origen, destino, monto, alCompletar);
+        }
+
+        // Igual que publicar pero sin esperar, lo usan los hilos de otras particiones
+        boolean intentarPublicar(byte tipo, Cuenta origen, Cuenta destino, long monto, AlCompletar alCompletar) {
+            long secuencia;
+            do {
+                secuencia = siguiente.get();
+                if (secuencia - consumidas >= capacidad) {
+                    return false;
+                }
+            } while (!siguiente.compareAndSet(secuencia, secuencia + 1));
+            escribir(secuencia, tipo, origen, destino, monto, alCompletar);
+            return true;
+        }
+
+        private void escribir(long secuencia, byte tipo, Cuenta origen, Cuenta destino, long monto,
+                AlCompletar alCompletar) {
+            int i = (int) secuencia & mascara;
+            tipos[i] = tipo;
+            origenes[i] = origen;
+            destinos[i] = destino;
+            montos[i] = monto;
+            callbacks[i] = alCompletar;
+            // la escritura volatile publica los campos anteriores al consumidor
+            publicadas.set(i, secuencia);
+            if (secuencia == consumidas) {
+                LockSupport.unpark(hilo);
+            }
+        }
+
+        @Override
+        public void run() {
+            int esperas = 0;
+            while (true) {
+                boolean avanzo = reintentarDesbordados();
+                avanzo |= consumir() > 0;
+                if (avanzo) {
+                    esperas = 0;
+                } else if (detener) {
+                    return;
+                } else if (++esperas < ESPERAS_ACTIVAS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(this, PAUSA_NANOS);
+                }
+            }
+        }
+
+        private int consumir() {
+            long secuencia = consumidas;
+            int procesadas = 0;
+            while (procesadas < LOTE) {
+                int i = (int) secuencia & mascara;
+                if (publicadas.get(i) != secuencia) {
+                    break;
+                }
+                byte tipo = tipos[i];
+                Cuenta origen = origenes[i];
+                Cuenta destino = destinos[i];
+                long monto = montos[i];
+                AlCompletar alCompletar = callbacks[i];
+                // se sueltan las referencias antes de liberar la posición
+                origenes[i] = null;
+                destinos[i] = null;
+                callbacks[i] = null;
+                secuencia++;
+                procesadas++;
+                try {
+                    aplicar(tipo, origen, destino, monto, alCompletar);
+                } catch (RuntimeException e) {
+                    // un error inesperado no puede detener el hilo de la
+                    // partición, close quedaría esperando para siempre
+                    completar(alCompletar, e);
+                }
+            }
+            if (procesadas > 0) {
+                consumidas = secuencia;
+            }
+            return procesadas;
+        }
+
+        private void aplicar(byte tipo, Cuenta origen, Cuenta destino, long monto, AlCompletar alCompletar) {
+            switch (tipo) {
+                case TRANSFERENCIA -> transferir(origen, destino, monto, alCompletar);
+                case CREDITO -> acreditar(origen, destino, monto, alCompletar);
+                default -> {
+                    origen.creditoSinLock(monto);
+                    completar(alCompletar, null);
+                }
+            }
+        }
+
+        private void transferir(Cuenta origen, Cuenta destino, long monto, AlCompletar alCompletar) {
+            if (Dinero.restar(origen.saldoSinLock(), monto) < 0) {
+                // el stack trace del hilo de la partición no le sirve al productor
+                completar(alCompletar, DineroInsuficienteException.sinTraza());
+                return;
+            }
+            // se registra en el diario antes del débito: si el diario falla o
+            // el crédito desbordaría, la transferencia se rechaza sin haber
+            // tocado ninguna cuenta. El crédito en otra partición llega
+            // después, pero en el diario la transferencia queda completa en
+            // esta posición
+            try {
+                if (origen != destino) {
+                    Dinero.sumar(destino.saldoSinLock(), monto);
+                }
+                Banco.anotarTransferencia(origen, destino, monto);
+            } catch (RuntimeException e) {
+                completar(alCompletar, e);
+                return;
+            }
+            origen.intentarDebitoSinLock(monto);
+            Particion duena = particionDe(destino);
+            if (duena != this) {
+                enviar(duena, CREDITO, origen, destino, monto, alCompletar);
+                return;
+            }
+            destino.creditoSinLock(monto);
+            completar(alCompletar, null);
+        }
+
+        private void acreditar(Cuenta origen, Cuenta destino, long monto, AlCompletar alCompletar) {
+            try {
+                destino.creditoSinLock(monto);
+            } catch (ArithmeticException desborde) {
+                // la transferencia ya está en el diario, la vuelta también se registra
+                try {
+                    Banco.anotarTransferencia(destino, origen, monto);
+                } catch (RuntimeException e) {
+                    desborde.addSuppressed(e);
+                }
+                enviar(particionDe(origen), DEVOLUCION, origen, destino, monto,
+                        alCompletar == null ? null : error -> alCompletar.completar(desborde));
+                return;
+            }
+            completar(alCompletar, null);
+        }
+
+        private void enviar(Particion duena, byte tipo, Cuenta origen, Cuenta destino, long monto,
+                AlCompletar alCompletar) {
+            if (!desbordados.isEmpty() || !duena.intentarPublicar(tipo, origen, destino, monto, alCompletar)) {
+                desbordados.add(new Desbordado(duena, tipo, origen, destino, monto, alCompletar));
+            }
+        }
+
+        /*
+         * Un hilo de partición nunca espera a que otro anillo tenga lugar: si dos
+         * particiones llenas se esperaran entre sí quedarían bloqueadas. El
+         * crédito o la devolución queda en desbordados y se reintenta en la
+         * vuelta siguiente.
+         */
+        private boolean reintentarDesbordados() {
+            boolean avanzo = false;
+            while (!desbordados.isEmpty()) {
+                Desbordado desbordado = desbordados.peek();
+                if (!desbordado.particion().intentarPublicar(desbordado.tipo(), desbordado.origen(),
+                        desbordado.destino(), desbordado.monto(), desbordado.alCompletar())) {
+                    break;
+                }
+                desbordados.poll();
+                avanzo = true;
+            }
+            return avanzo;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.elianfm.junitapp.models;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Reloj de versiones de los saldos de un banco (ver Banco.activarVersiones).
+ *
+ * Cada escritura de un saldo toma un número del reloj con la cuenta
+ * bloqueada y agrega una Version a la cadena de la cuenta; una transferencia
+ * usa el mismo número para las dos cuentas. Una lectura en la versión V ve,
+ * de cada cuenta, la última versión con número <= V: todas las escrituras
+ * anteriores completas y ninguna posterior, sin frenar a nadie.
+ *
+ * Las versiones viejas se podan al escribir, conservando lo que todavía
+ * necesita la lectura abierta más vieja. Si una lectura abre justo cuando se
+ * poda la cuenta puede no encontrar su versión; en ese caso
+ * Cuenta.saldoEnVersion devuelve VERSION_PODADA y la lectura se repite.
+ */
+final class RelojVersiones {
+
+    // Saldo de una cuenta desde la escritura número "numero"
+    static final class Version {
+        final long saldo;
+        final long numero;
+        volatile Version anterior;
+
+        Version(long saldo, long numero, Version anterior) {
+            this.saldo = saldo;
+            this.numero = numero;
+            this.anterior = anterior;
+        }
+    }
+
+    // Lectura abierta en una versión; el número solo distingue dos lecturas de la misma versión
+    record Lectura(long version, long numero) implements Comparable<Lectura> {
+
+        @Override
+        public int compareTo(Lectura otra) {
+            int porVersion = Long.compare(version, otra.version);
+            return porVersion != 0 ? porVersion : Long.compare(numero, otra.numero);
+        }
+    }
+
+    // Lo devuelve Cuenta.saldoEnVersion cuando la versión pedida ya se podó
+    static final long VERSION_PODADA = Long.MIN_VALUE;
+
+    private final AtomicLong reloj = new AtomicLong();
+    private final AtomicLong lecturasAbiertas = new AtomicLong();
+    private final ConcurrentSkipListMap<Lectura, Boolean> lecturas = new ConcurrentSkipListMap<>();
+
+    // Se llama con la cuenta (o las dos cuentas de la transferencia) bloqueadas
+    long siguiente() {
+        return reloj.incrementAndGet();
+    }
+
+    Lectura abrirLectura() {
+        Lectura lectura = new Lectura(reloj.get(), lecturasAbiertas.incrementAndGet());
+        lecturas.put(lectura, Boolean.TRUE);
+        return lectura;
+    }
+
+    void cerrarLectura(Lectura lectura) {
+        lecturas.remove(lectura);
+    }
+
+    /*
+     * Corta la cadena después de la versión más nueva que todavía puede leer
+     * la lectura abierta más vieja. Sin lecturas abiertas queda solo la
+     * versión actual.
+     */
+    void podar(Version cabeza) {
+        Map.Entry<Lectura, Boolean> masVieja = lecturas.firstEntry();
+        long horizonte = masVieja == null ? Long.MAX_VALUE : masVieja.getKey().version();
+        Version version = cabeza;
+        while (version.numero > horizonte && version.anterior != null) {
+            version = version.anterior;
+        }
+        version.anterior = null;
+    }
+}
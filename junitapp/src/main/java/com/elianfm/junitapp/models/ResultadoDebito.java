@@ -0,0 +1,23 @@
+package com.elianfm.junitapp.models;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+
+/*
+ * Resultado de Cuenta.intentarDebito: rechazar un débito no lanza una
+ * excepción ni crea objetos, el llamador decide qué hacer con el resultado.
+ */
+public enum ResultadoDebito {
+    APLICADO,
+    DINERO_INSUFICIENTE;
+
+    public boolean aplicado() {
+        return this == APLICADO;
+    }
+
+    // Para quien igual quiere una excepción: lanza la instancia compartida sin stack trace
+    public void exigir() {
+        if (this != APLICADO) {
+            throw DineroInsuficienteException.sinTraza();
+        }
+    }
+}
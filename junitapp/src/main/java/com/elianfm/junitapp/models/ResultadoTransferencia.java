@@ -0,0 +1,13 @@
+package com.elianfm.junitapp.models;
+
+/*
+ * Resultado de una transferencia de un lote. Si falló, error contiene la
+ * excepción que se lanzó (por ejemplo DineroInsuficienteException) y las
+ * cuentas quedan como estaban antes de esa transferencia.
+ */
+public record ResultadoTransferencia(Transferencia transferencia, RuntimeException error) {
+
+    public boolean exitosa() {
+        return error == null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.elianfm.junitapp.models;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/*
+ * Copia de los saldos de todas las cuentas de un banco tomada en un mismo
+ * instante (ver Banco.resumenSaldos). Todas las consultas se calculan sobre
+ * esa copia con reducciones paralelas en el ForkJoinPool común, así que son
+ * consistentes entre sí aunque el banco siga transfiriendo.
+ */
+public final class ResumenSaldos {
+
+    private final long[] saldos;
+
+    ResumenSaldos(long[] saldos) {
+        this.saldos = saldos;
+    }
+
+    private LongStream paralelo() {
+        return Arrays.stream(saldos).parallel();
+    }
+
+    public int cantidadCuentas() {
+        return saldos.length;
+    }
+
+    public BigDecimal total() {
+        return Dinero.aBigDecimal(paralelo().reduce(0L, Dinero::sumar));
+    }
+
+    public Optional<BigDecimal> minimo() {
+        return convertir(paralelo().min());
+    }
+
+    public Optional<BigDecimal> maximo() {
+        return convertir(paralelo().max());
+    }
+
+    private static Optional<BigDecimal> convertir(OptionalLong unidades) {
+        return unidades.isPresent() ? Optional.of(Dinero.aBigDecimal(unidades.getAsLong())) : Optional.empty();
+    }
+
+    // Cuenta los saldos (en unidades de Dinero) que cumplen el predicado
+    public long contar(LongPredicate predicado) {
+        return paralelo().filter(predicado).count();
+    }
+
+    public long contarMenoresA(BigDecimal umbral) {
+        long limite = Dinero.aUnidades(umbral);
+        return contar(saldo -> saldo < limite);
+    }
+
+    /*
+     * Distribución de saldos. Con los límites l0 < l1 < ... < ln-1 devuelve n+1
+     * cantidades: saldos menores a l0, entre l0 (incluido) y l1, ..., y mayores
+     * o iguales a ln-1.
+     */
+    public long[] histograma(BigDecimal... limites) {
+        long[] cortes = new long[limites.length];
+        for (int i = 0; i < limites.length; i++) {
+            cortes[i] = Dinero.aUnidades(limites[i]);
+            if (i > 0 && cortes[i] <= cortes[i - 1]) {
+                throw new IllegalArgumentException("Los límites del histograma deben ser crecientes");
+            }
+        }
+        return IntStream.range(0, saldos.length).parallel().collect(
+                () -> new long[cortes.length + 1],
+                (cantidades, i) -> cantidades[balde(cortes, saldos[i])]++,
+                (a, b) -> {
+                    for (int i = 0; i < a.length; i++) {
+                        a[i] += b[i];
+                    }
+                });
+    }
+
+    private static int balde(long[] cortes, long saldo) {
+        int posicion = Arrays.binarySearch(cortes, saldo);
+        // binarySearch devuelve -(punto de inserción) - 1 si no lo encuentra
+        return posicion >= 0 ? posicion + 1 : -posicion - 1;
+    }
+}
@@ -0,0 +1,7 @@
+package com.elianfm.junitapp.models;
+
+import java.math.BigDecimal;
+
+// Una transferencia pendiente dentro de un lote (ver Banco.transferirLote)
+public record Transferencia(Cuenta origen, Cuenta destino, BigDecimal monto) {
+}
@@ -0,0 +1,104 @@
+package com.elianfm.junitapp.carga;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.elianfm.junitapp.carga.CargadorCsv.ResultadoCarga;
+import com.elianfm.junitapp.models.Banco;
+import com.elianfm.junitapp.models.Cuenta;
+
+class CargadorCsvTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Cargar las cuentas de data.csv")
+    void testCargarDataCsv() throws IOException, URISyntaxException {
+        Path dataCsv = Path.of(getClass().getResource("/data.csv").toURI());
+        Banco banco = new Banco("Banco de la nación");
+
+        ResultadoCarga resultado = new CargadorCsv().cargarCuentas(dataCsv, banco);
+
+        assertEquals(new ResultadoCarga(6, 0), resultado);
+        assertEquals(0, new BigDecimal("900").compareTo(banco.buscarPorPersona("100").orElseThrow().getSaldo()));
+        assertEquals(0, new BigDecimal("400").compareTo(banco.buscarPorPersona("600").orElseThrow().getSaldo()));
+    }
+
+    @Test
+    @DisplayName("Aplicar créditos y débitos, rechazando los que no corresponden")
+    void testAplicarMovimientos() throws IOException {
+        Banco banco = new Banco("Banco");
+        banco.addCuenta(new Cuenta("Elian", new BigDecimal("1000.12345")));
+        banco.addCuenta(new Cuenta("Andres", new BigDecimal("10")));
+        Path archivo = directorio.resolve("movimientos.csv");
+        Files.writeString(archivo, "Elian,-100.12345\r\n Andres , +5.5 \n\nAndres,-50\nJuan,10\nElian,0.00001");
+
+        ResultadoCarga resultado = new CargadorCsv().aplicarMovimientos(archivo, banco);
+
+        assertAll(
+                () -> assertEquals(new ResultadoCarga(5, 2), resultado),
+                () -> assertEquals(90000001L, banco.buscarPorPersona("Elian").orElseThrow().getSaldoUnidades()),
+                () -> assertEquals(1550000L, banco.buscarPorPersona("Andres").orElseThrow().getSaldoUnidades()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "Elian,abc", "Elian,1.000001", "Elian,", "Elian 100", "Elian,99999999999999999999" })
+    @DisplayName("Líneas mal formadas lanzan IllegalArgumentException")
+    void testLineaInvalida(String linea) throws IOException {
+        Path archivo = directorio.resolve("invalido.csv");
+        Files.writeString(archivo, linea);
+        assertThrows(IllegalArgumentException.class,
+                () -> new CargadorCsv().cargarCuentas(archivo, new Banco("Banco")));
+    }
+
+    @ParameterizedTest(name = "{0} hilos")
+    @ValueSource(ints = { 1, 3, 8 })
+    @DisplayName("Ventanas chicas y varios hilos cargan todas las líneas")
+    void testVentanasYHilos(int hilos) throws IOException {
+        Path archivo = directorio.resolve("cuentas.csv");
+        long esperado = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(archivo)) {
+            for (int i = 0; i < 5_000; i++) {
+                writer.write("Cuenta " + i + "," + i + ".5\n");
+                esperado += i * 100_000L + 50_000L;
+            }
+        }
+        Banco banco = new Banco("Banco");
+
+        // ventana de 64 bytes para que muchas líneas queden cortadas entre ventanas
+        ResultadoCarga resultado = new CargadorCsv(hilos, 64).cargarCuentas(archivo, banco);
+
+        assertEquals(new ResultadoCarga(5_000, 0), resultado);
+        assertEquals(5_000, banco.cantidadCuentas());
+        assertEquals(esperado, banco.getCuentas().stream().mapToLong(Cuenta::getSaldoUnidades).sum());
+    }
+
+    @Test
+    @DisplayName("Una línea mal formada al final no aplica ninguna de las anteriores")
+    void testLineaInvalidaNoAplicaNada() throws IOException {
+        Banco banco = new Banco("Banco");
+        Cuenta cuenta = new Cuenta("Elian", new BigDecimal("100"));
+        banco.addCuenta(cuenta);
+        Path archivo = directorio.resolve("movimientos.csv");
+        Files.writeString(archivo, "Elian,10\nElian,-20\nElian,abc\n");
+
+        assertThrows(IllegalArgumentException.class, () -> new CargadorCsv().aplicarMovimientos(archivo, banco));
+        Banco otro = new Banco("Otro");
+        assertThrows(IllegalArgumentException.class, () -> new CargadorCsv().cargarCuentas(archivo, otro));
+        assertEquals(0, new BigDecimal("100").compareTo(cuenta.getSaldo()));
+        assertEquals(0, otro.cantidadCuentas());
+    }
+}
@@ -0,0 +1,108 @@
+package com.elianfm.junitapp.carga;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class GeneradorCargaTest {
+
+    @ParameterizedTest(name = "Mezcla {0}")
+    @EnumSource(Mezcla.class)
+    @DisplayName("Una carga chica cuenta todas las transferencias y conserva el dinero")
+    void testCargaConservaElDinero(Mezcla mezcla) throws InterruptedException {
+        GeneradorCarga.Configuracion configuracion = new GeneradorCarga.Configuracion(200, 50, 25, mezcla, 10);
+
+        GeneradorCarga.Reporte reporte = GeneradorCarga.ejecutar(configuracion);
+
+        assertAll(
+                () -> assertEquals(5_000, reporte.exitosas() + reporte.rechazadas()),
+                () -> assertEquals(5_000, reporte.latencias().cantidad()),
+                () -> assertTrue(reporte.dineroConservado(), reporte::toString),
+                () -> assertTrue(reporte.transferenciasPorSegundo() > 0));
+    }
+
+    @Test
+    @DisplayName("El reporte dice qué hilos se usaron realmente")
+    void testHilosUsados() throws InterruptedException {
+        GeneradorCarga.Reporte virtuales = GeneradorCarga.ejecutar(
+                new GeneradorCarga.Configuracion(10, 10, 5, Mezcla.UNIFORME, 0, GeneradorCarga.Hilos.VIRTUALES));
+        GeneradorCarga.Reporte plataforma = GeneradorCarga.ejecutar(
+                new GeneradorCarga.Configuracion(10, 10, 5, Mezcla.UNIFORME, 0, GeneradorCarga.Hilos.PLATAFORMA));
+
+        if (GeneradorCarga.hilosVirtualesDisponibles()) {
+            assertEquals(GeneradorCarga.Hilos.VIRTUALES, virtuales.hilosUsados());
+            assertEquals("virtuales", virtuales.hilos());
+        } else {
+            // sin hilos virtuales en la JVM se corre con el pool y el reporte lo dice
+            assertEquals(GeneradorCarga.Hilos.PLATAFORMA, virtuales.hilosUsados());
+            assertTrue(virtuales.hilos().contains("se pidieron virtuales"), virtuales::hilos);
+        }
+        assertEquals(GeneradorCarga.Hilos.PLATAFORMA, plataforma.hilosUsados());
+        assertEquals("de plataforma (10)", plataforma.hilos());
+    }
+
+    @Test
+    @DisplayName("El punto caliente concentra las elecciones en pocas cuentas")
+    void testPuntoCaliente() {
+        Mezcla.Elector elector = Mezcla.PUNTO_CALIENTE.elector(1_000);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int calientes = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int cuenta = elector.siguiente(random);
+            assertTrue(cuenta >= 0 && cuenta < 1_000);
+            if (cuenta < 10) {
+                calientes++;
+            }
+        }
+        // 90% directo más el 1% de la parte uniforme
+        assertTrue(calientes > 8_500, "Elecciones en cuentas calientes: " + calientes);
+    }
+
+    @Test
+    @DisplayName("Zipf elige la primera cuenta más que la última")
+    void testZipf() {
+        Mezcla.Elector elector = Mezcla.desdeTexto("zipf").elector(100);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] veces = new int[100];
+        for (int i = 0; i < 20_000; i++) {
+            veces[elector.siguiente(random)]++;
+        }
+        assertTrue(veces[0] > 10 * veces[99]);
+    }
+
+    @Test
+    @DisplayName("Los percentiles tienen error relativo acotado")
+    void testPercentiles() {
+        Latencias latencias = new Latencias();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            latencias.registrar(nanos);
+        }
+
+        assertAll(
+                () -> assertEquals(100_000, latencias.cantidad()),
+                () -> assertEquals(100_000, latencias.maximo()),
+                () -> assertEquals(50_000, latencias.percentil(50), 50_000 * 0.0625),
+                () -> assertEquals(99_000, latencias.percentil(99), 99_000 * 0.0625),
+                () -> assertEquals(100_000, latencias.percentil(100)));
+    }
+
+    @Test
+    @DisplayName("Los argumentos de la línea de comandos arman la configuración")
+    void testArgumentos() {
+        GeneradorCarga.Configuracion configuracion = GeneradorCarga.Configuracion.desdeArgumentos(
+                new String[] { "--clientes=10", "--mezcla=punto-caliente", "--pausa=0", "--hilos=plataforma" });
+
+        assertAll(
+                () -> assertEquals(10, configuracion.clientes()),
+                () -> assertEquals(Mezcla.PUNTO_CALIENTE, configuracion.mezcla()),
+                () -> assertEquals(0, configuracion.pausaMaximaMicros()),
+                () -> assertEquals(GeneradorCarga.Hilos.PLATAFORMA, configuracion.hilos()),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> GeneradorCarga.Configuracion.desdeArgumentos(new String[] { "--hilos=3" })));
+    }
+}
@@ -0,0 +1,152 @@
+package com.elianfm.junitapp.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+
+class BancoColumnarTest {
+
+    BancoColumnar banco;
+
+    @BeforeEach
+    void initBanco() {
+        this.banco = new BancoColumnar("Banco de la nación");
+    }
+
+    @Test
+    @DisplayName("Las vistas leen y escriben en las columnas del banco")
+    void testVistas() {
+        CuentaColumnar cuenta1 = banco.addCuenta("Elian", new BigDecimal("1000.12345"));
+        CuentaColumnar cuenta2 = banco.addCuenta("Andres", new BigDecimal("3000.12345"));
+
+        banco.transferir(cuenta2, cuenta1, new BigDecimal(500));
+        cuenta1.debito(new BigDecimal(100));
+
+        CuentaColumnar otraVista = banco.buscarPorPersona("Elian").orElseThrow();
+        assertAll(
+                () -> assertEquals(cuenta1, otraVista),
+                () -> assertEquals("Elian", otraVista.getPersona()),
+                () -> assertEquals(1400.12345, otraVista.getSaldo().doubleValue()),
+                () -> assertEquals(2500.12345, cuenta2.getSaldo().doubleValue()),
+                () -> assertEquals(0, new BigDecimal("3900.24690").compareTo(banco.total())));
+    }
+
+    @Test
+    @DisplayName("Transferencia rechazada y transferencia a la misma cuenta")
+    void testCasosBorde() {
+        CuentaColumnar cuenta1 = banco.addCuenta("Elian", new BigDecimal("100"));
+        CuentaColumnar cuenta2 = banco.addCuenta("Andres", new BigDecimal("100"));
+
+        assertThrows(DineroInsuficienteException.class, () -> banco.transferir(cuenta1, cuenta2, new BigDecimal(500)));
+        banco.transferir(cuenta1, cuenta1, new BigDecimal(50));
+
+        assertEquals(10_000_000L, cuenta1.getSaldoUnidades());
+        assertEquals(10_000_000L, cuenta2.getSaldoUnidades());
+        assertThrows(IllegalArgumentException.class, () -> banco.addCuenta("Elian", BigDecimal.ONE));
+    }
+
+    @Test
+    @DisplayName("La vista de una cuenta eliminada no toca a la cuenta que reutiliza su slot")
+    void testVistaDeCuentaEliminada() {
+        CuentaColumnar eliminada = banco.addCuenta("Elian", new BigDecimal("100"));
+        CuentaColumnar otra = banco.addCuenta("Andres", new BigDecimal("100"));
+        banco.removeCuenta(eliminada);
+        CuentaColumnar nueva = banco.addCuenta("Juan", new BigDecimal("50"));
+
+        assertEquals(eliminada.getSlot(), nueva.getSlot());
+        assertNotEquals(eliminada, nueva);
+        assertAll(
+                () -> assertThrows(IllegalStateException.class, eliminada::getSaldoUnidades),
+                () -> assertThrows(IllegalStateException.class, eliminada::getPersona),
+                () -> assertThrows(IllegalStateException.class, () -> eliminada.credito(BigDecimal.TEN)),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> banco.transferir(eliminada, otra, BigDecimal.ONE)),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> banco.transferir(otra, eliminada, BigDecimal.ONE)));
+        // eliminar otra vez con la vista vieja no elimina la cuenta nueva
+        banco.removeCuenta(eliminada);
+
+        assertEquals(2, banco.cantidadCuentas());
+        assertEquals(5_000_000L, nueva.getSaldoUnidades());
+        assertEquals(10_000_000L, otra.getSaldoUnidades());
+    }
+
+    @Test
+    @DisplayName("Altas y bajas al azar mantienen el índice igual que un HashMap")
+    void testIndiceContraHashMap() {
+        Map<String, Long> esperado = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            String persona = "Persona " + random.nextInt(3_000);
+            if (esperado.containsKey(persona)) {
+                banco.removeCuenta(banco.buscarPorPersona(persona).orElseThrow());
+                esperado.remove(persona);
+            } else {
+                long saldo = random.nextInt(1_000_000);
+                banco.addCuentaUnidades(persona, saldo);
+                esperado.put(persona, saldo);
+            }
+        }
+
+        assertEquals(esperado.size(), banco.cantidadCuentas());
+        for (int i = 0; i < 3_000; i++) {
+            String persona = "Persona " + i;
+            Long saldo = esperado.get(persona);
+            assertEquals(saldo, banco.buscarPorPersona(persona).map(CuentaColumnar::getSaldoUnidades).orElse(null));
+        }
+        assertEquals(esperado.values().stream().mapToLong(Long::longValue).sum(), banco.totalUnidades());
+    }
+
+    @Test
+    @DisplayName("El dinero total se conserva con transferencias concurrentes y varios bloques, también mientras están en curso")
+    void testConservacionDelDinero() throws InterruptedException {
+        List<CuentaColumnar> cuentas = new ArrayList<>();
+        for (int i = 0; i < BancoColumnar.TAMANO_BLOQUE + 100; i++) {
+            cuentas.add(banco.addCuentaUnidades("Cuenta " + i, 1_000));
+        }
+        long esperado = banco.totalUnidades();
+        AtomicInteger turno = new AtomicInteger();
+        AtomicInteger terminados = new AtomicInteger();
+
+        BancoTest.enParalelo(5, () -> {
+            if (turno.getAndIncrement() == 0) {
+                // totalUnidades no ve transferencias a medio aplicar
+                while (terminados.get() < 4) {
+                    assertEquals(esperado, banco.totalUnidades());
+                }
+                return;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try {
+                for (int i = 0; i < 100_000; i++) {
+                    // pocas cuentas para que haya contención sobre las mismas franjas
+                    int origen = random.nextInt(300);
+                    int destino = random.nextInt(cuentas.size());
+                    try {
+                        banco.transferirUnidades(cuentas.get(origen), cuentas.get(destino), random.nextInt(1, 500));
+                    } catch (DineroInsuficienteException e) {
+                        // esperado
+                    }
+                }
+            } finally {
+                terminados.incrementAndGet();
+            }
+        });
+
+        assertEquals(esperado, banco.totalUnidades());
+        assertTrue(cuentas.stream().allMatch(c -> c.getSaldoUnidades() >= 0));
+    }
+}
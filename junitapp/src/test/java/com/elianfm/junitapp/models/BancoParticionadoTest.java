@@ -0,0 +1,195 @@
+package com.elianfm.junitapp.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+
+class BancoParticionadoTest {
+
+    BancoParticionado banco;
+
+    @BeforeEach
+    void initBanco() {
+        banco = new BancoParticionado("Banco de la nación", 4);
+    }
+
+    @AfterEach
+    void cerrarBanco() {
+        banco.close();
+    }
+
+    // Crea cuentas hasta que una caiga en el fragmento pedido
+    Cuenta cuentaEnFragmento(int fragmento, String persona, String saldo) {
+        while (true) {
+            Cuenta cuenta = new Cuenta(persona, new BigDecimal(saldo));
+            if (banco.indiceFragmento(cuenta.getId()) == fragmento) {
+                return cuenta;
+            }
+        }
+    }
+
+    Cuenta agregar(int fragmento, String persona, String saldo) {
+        Cuenta cuenta = cuentaEnFragmento(fragmento, persona, saldo);
+        banco.addCuenta(cuenta);
+        return cuenta;
+    }
+
+    Cuenta agregar(String persona, String saldo) {
+        Cuenta cuenta = new Cuenta(persona, new BigDecimal(saldo));
+        banco.addCuenta(cuenta);
+        return cuenta;
+    }
+
+    static Throwable causa(CompletableFuture<Void> futuro) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> futuro.get(5, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    @Test
+    @DisplayName("Transferencia dentro de un mismo fragmento")
+    void testMismoFragmento() throws Exception {
+        Cuenta elian = agregar(1, "Elian", "1000.12345");
+        Cuenta andres = agregar(1, "Andres", "3000");
+
+        banco.transferir(elian, andres, new BigDecimal("500")).get(5, TimeUnit.SECONDS);
+
+        assertAll(
+                () -> BancoTest.assertSaldo("500.12345", elian),
+                () -> BancoTest.assertSaldo("3500", andres),
+                () -> assertEquals(0, BigDecimal.ZERO.compareTo(banco.enTransito())));
+    }
+
+    @Test
+    @DisplayName("Transferencia entre fragmentos con reserva y confirmación")
+    void testEntreFragmentos() throws Exception {
+        Cuenta elian = agregar(0, "Elian", "1000.12345");
+        Cuenta andres = agregar(3, "Andres", "3000");
+
+        banco.transferir(elian, andres, new BigDecimal("0.12345")).get(5, TimeUnit.SECONDS);
+
+        assertAll(
+                () -> BancoTest.assertSaldo("1000", elian),
+                () -> BancoTest.assertSaldo("3000.12345", andres),
+                () -> assertEquals(0, new BigDecimal("4000.12345").compareTo(banco.total())),
+                () -> assertEquals(0, BigDecimal.ZERO.compareTo(banco.enTransito())));
+    }
+
+    @Test
+    @DisplayName("Sin saldo suficiente no se reserva nada")
+    void testDineroInsuficiente() {
+        Cuenta elian = agregar(0, "Elian", "100");
+        Cuenta andres = agregar(2, "Andres", "100");
+
+        assertInstanceOf(DineroInsuficienteException.class,
+                causa(banco.transferir(elian, andres, new BigDecimal("500"))));
+        BancoTest.assertSaldo("100", elian);
+        BancoTest.assertSaldo("100", andres);
+    }
+
+    @Test
+    @DisplayName("Si la confirmación falla se compensa en la cuenta origen")
+    void testCompensacion() {
+        Cuenta elian = agregar(0, "Elian", "1000");
+        // saldo máximo en unidades, cualquier crédito desborda
+        Cuenta lleno = agregar(1, "Lleno", "92233720368547.75807");
+
+        Throwable sinCuenta = causa(banco.transferir(elian, cuentaEnFragmento(2, "Nadie", "0"), BigDecimal.TEN));
+        Throwable desborde = causa(banco.transferir(elian, lleno, BigDecimal.TEN));
+
+        assertAll(
+                () -> assertInstanceOf(IllegalArgumentException.class, sinCuenta),
+                () -> assertInstanceOf(ArithmeticException.class, desborde),
+                () -> BancoTest.assertSaldo("1000", elian),
+                () -> BancoTest.assertSaldo("92233720368547.75807", lleno),
+                () -> assertEquals(0, BigDecimal.ZERO.compareTo(banco.enTransito())));
+    }
+
+    @Test
+    @DisplayName("Muchas transferencias concurrentes conservan el dinero, también mientras están en curso")
+    void testConcurrentesConservanElDinero() throws InterruptedException {
+        List<Cuenta> cuentas = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            cuentas.add(agregar("Cuenta " + i, "1000.12345"));
+        }
+        BigDecimal totalInicial = banco.total();
+        List<CompletableFuture<Void>> futuros = new ArrayList<>();
+
+        BancoTest.enParalelo(4, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<CompletableFuture<Void>> propios = new ArrayList<>();
+            for (int i = 0; i < 5_000; i++) {
+                propios.add(banco.transferir(cuentas.get(random.nextInt(cuentas.size())),
+                        cuentas.get(random.nextInt(cuentas.size())), new BigDecimal(random.nextInt(1, 300))));
+            }
+            synchronized (futuros) {
+                futuros.addAll(propios);
+            }
+        });
+        // total() ve cada paso entero: es exacto aunque haya dinero en tránsito
+        CompletableFuture<Void> todas = CompletableFuture.allOf(futuros.toArray(new CompletableFuture[0]));
+        while (!todas.isDone()) {
+            assertEquals(0, totalInicial.compareTo(banco.total()));
+        }
+        // join lanza si alguna falló por algo distinto de falta de saldo
+        futuros.forEach(f -> f.exceptionally(e -> {
+            assertInstanceOf(DineroInsuficienteException.class, e);
+            return null;
+        }).join());
+
+        assertAll(
+                () -> assertEquals(0, totalInicial.compareTo(banco.total())),
+                () -> assertEquals(0, BigDecimal.ZERO.compareTo(banco.enTransito())),
+                () -> assertEquals(32, banco.cantidadCuentas()));
+    }
+
+    @Test
+    @DisplayName("Un banco cerrado rechaza las transferencias")
+    void testCerrado() {
+        Cuenta elian = agregar("Elian", "100");
+        Cuenta andres = agregar("Andres", "100");
+        banco.close();
+
+        assertInstanceOf(IllegalStateException.class,
+                causa(banco.transferir(elian, andres, BigDecimal.ONE)));
+    }
+
+    @Test
+    @DisplayName("Varias cuentas de una persona transfieren y cambiar la persona no las pierde")
+    void testVariasCuentasPorPersona() throws Exception {
+        Cuenta primera = agregar(0, "Elian", "100");
+        Cuenta segunda = agregar(1, "Elian", "100");
+        Cuenta andres = agregar(2, "Andres", "100");
+
+        banco.transferir(andres, segunda, BigDecimal.TEN).get(5, TimeUnit.SECONDS);
+        banco.transferir(segunda, primera, new BigDecimal("50")).get(5, TimeUnit.SECONDS);
+        segunda.setPersona("Elian F");
+
+        assertAll(
+                () -> BancoTest.assertSaldo("150", primera),
+                () -> BancoTest.assertSaldo("60", segunda),
+                () -> assertEquals(List.of(primera), banco.cuentasDePersona("Elian")),
+                () -> assertEquals(List.of(segunda), banco.cuentasDePersona("Elian F")));
+
+        banco.removeCuenta(segunda);
+
+        assertAll(
+                () -> assertTrue(banco.buscarPorId(segunda.getId()).isEmpty()),
+                () -> assertTrue(banco.cuentasDePersona("Elian F").isEmpty()),
+                () -> assertEquals(2, banco.cantidadCuentas()),
+                () -> assertInstanceOf(IllegalArgumentException.class,
+                        causa(banco.transferir(segunda, primera, BigDecimal.ONE))));
+    }
+}
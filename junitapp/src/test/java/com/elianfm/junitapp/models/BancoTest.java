@@ -0,0 +1,685 @@
+package com.elianfm.junitapp.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+
+class BancoTest {
+
+    Banco banco;
+
+    @BeforeEach
+    void initBanco() {
+        this.banco = new Banco("Banco de la nación");
+    }
+
+    // Suma de todos los saldos del banco, sirve para verificar que el dinero
+    // no se crea ni se destruye en las transferencias
+    static BigDecimal total(List<Cuenta> cuentas) {
+        return cuentas.stream().map(Cuenta::getSaldo).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    // Compara saldos con compareTo para no depender de la escala del BigDecimal
+    static void assertSaldo(String esperado, Cuenta cuenta) {
+        assertEquals(0, new BigDecimal(esperado).compareTo(cuenta.getSaldo()),
+                () -> "Saldo esperado " + esperado + " pero era " + cuenta.getSaldo());
+    }
+
+    /*
+     * Ejecuta la tarea en varios hilos a la vez y espera a que terminen todos.
+     * Si alguna tarea lanza una excepción no controlada el test falla.
+     */
+    static void enParalelo(int hilos, Runnable tarea) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        List<Throwable> errores = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            executor.execute(() -> {
+                try {
+                    tarea.run();
+                } catch (Throwable t) {
+                    synchronized (errores) {
+                        errores.add(t);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), () -> "Los hilos no terminaron a tiempo");
+        assertTrue(errores.isEmpty(), () -> "Errores en los hilos: " + errores);
+    }
+
+    @Nested
+    @Tag("concurrencia")
+    @DisplayName("Transferencias concurrentes")
+    class TransferenciasConcurrentes {
+
+        @Test
+        @DisplayName("El dinero total se conserva con muchos hilos transfiriendo")
+        void testConservacionDelDinero() throws InterruptedException {
+            List<Cuenta> cuentas = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                Cuenta cuenta = new Cuenta("Cuenta " + i, new BigDecimal("1000.00"));
+                banco.addCuenta(cuenta);
+                cuentas.add(cuenta);
+            }
+            BigDecimal esperado = total(cuentas);
+
+            enParalelo(8, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    Cuenta origen = cuentas.get(random.nextInt(cuentas.size()));
+                    Cuenta destino = cuentas.get(random.nextInt(cuentas.size()));
+                    try {
+                        banco.transferir(origen, destino, new BigDecimal(random.nextInt(1, 300)));
+                    } catch (DineroInsuficienteException e) {
+                        // Es esperado, hay muchas transferencias que vacían las cuentas
+                    }
+                }
+            });
+
+            assertEquals(0, esperado.compareTo(total(cuentas)));
+            assertTrue(cuentas.stream().allMatch(c -> c.getSaldo().signum() >= 0),
+                    () -> "Ninguna cuenta puede quedar con saldo negativo");
+        }
+
+        @Test
+        @DisplayName("Dos hilos debitando la misma cuenta no la dejan en negativo")
+        void testSinSobregiro() throws InterruptedException {
+            Cuenta origen = new Cuenta("Elian", new BigDecimal("1000"));
+            Cuenta destino = new Cuenta("Andres", BigDecimal.ZERO);
+
+            enParalelo(8, () -> {
+                for (int i = 0; i < 1_000; i++) {
+                    try {
+                        banco.transferir(origen, destino, BigDecimal.ONE);
+                    } catch (DineroInsuficienteException e) {
+                        // Se acabó el dinero de la cuenta origen
+                    }
+                }
+            });
+
+            assertSaldo("0", origen);
+            assertSaldo("1000", destino);
+        }
+
+        @Test
+        @DisplayName("Transferencias cruzadas A -> B y B -> A no producen deadlock")
+        void testSinDeadlock() {
+            Cuenta cuenta1 = new Cuenta("Elian", new BigDecimal("1000"));
+            Cuenta cuenta2 = new Cuenta("Andres", new BigDecimal("1000"));
+
+            AtomicInteger turno = new AtomicInteger();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                enParalelo(2, () -> {
+                    boolean ida = turno.getAndIncrement() % 2 == 0;
+                    for (int i = 0; i < 50_000; i++) {
+                        if (ida) {
+                            banco.transferir(cuenta1, cuenta2, BigDecimal.ONE);
+                            banco.transferir(cuenta2, cuenta1, BigDecimal.ONE);
+                        } else {
+                            banco.transferir(cuenta2, cuenta1, BigDecimal.ONE);
+                            banco.transferir(cuenta1, cuenta2, BigDecimal.ONE);
+                        }
+                    }
+                });
+            });
+
+            assertEquals(0, new BigDecimal("2000").compareTo(cuenta1.getSaldo().add(cuenta2.getSaldo())));
+        }
+
+        @Test
+        @DisplayName("Las lecturas optimistas del saldo no se frenan ni ven valores viejos")
+        void testLecturasDuranteTransferencias() throws InterruptedException {
+            Cuenta origen = new Cuenta("Elian", new BigDecimal("1000"));
+            Cuenta destino = new Cuenta("Andres", BigDecimal.ZERO);
+            AtomicInteger turno = new AtomicInteger();
+
+            enParalelo(4, () -> {
+                if (turno.getAndIncrement() == 0) {
+                    for (int i = 0; i < 1_000; i++) {
+                        banco.transferir(origen, destino, BigDecimal.ONE);
+                    }
+                    return;
+                }
+                // Solo se debita el origen, así que cada lectura ve un saldo
+                // menor o igual al anterior
+                long anterior = Long.MAX_VALUE;
+                while (anterior > 0) {
+                    long saldo = origen.getSaldoUnidades();
+                    assertTrue(saldo <= anterior && saldo >= 0, () -> "Saldo inválido: " + saldo);
+                    anterior = saldo;
+                }
+            });
+
+            assertSaldo("1000", destino);
+        }
+
+        @Test
+        @DisplayName("Transferir a la misma cuenta no produce deadlock")
+        void testTransferirMismaCuenta() {
+            Cuenta cuenta = new Cuenta("Elian", new BigDecimal("1000"));
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> banco.transferir(cuenta, cuenta, BigDecimal.TEN));
+            assertSaldo("1000", cuenta);
+        }
+
+        @Test
+        @DisplayName("Transferencias cruzadas entre dos cuentas con el mismo id no producen deadlock")
+        void testSinDeadlockMismoId() {
+            // Como la copia que deja una instantánea o el diario junto a la original
+            Cuenta original = new Cuenta("Elian", new BigDecimal("1000"));
+            Cuenta copia = new Cuenta(original.getId(), "Elian", original.getSaldoUnidades());
+            long total = original.getSaldoUnidades() + copia.getSaldoUnidades();
+
+            AtomicInteger turno = new AtomicInteger();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                enParalelo(2, () -> {
+                    boolean ida = turno.getAndIncrement() % 2 == 0;
+                    for (int i = 0; i < 50_000; i++) {
+                        if (ida) {
+                            banco.transferir(original, copia, BigDecimal.ONE);
+                            banco.transferir(copia, original, BigDecimal.ONE);
+                        } else {
+                            banco.transferir(copia, original, BigDecimal.ONE);
+                            banco.transferir(original, copia, BigDecimal.ONE);
+                        }
+                    }
+                });
+            });
+
+            assertEquals(total, original.getSaldoUnidades() + copia.getSaldoUnidades());
+        }
+
+        @Test
+        @DisplayName("Una transferencia rechazada no modifica ninguna cuenta")
+        void testTransferenciaRechazada() {
+            Cuenta origen = new Cuenta("Elian", new BigDecimal("100"));
+            Cuenta destino = new Cuenta("Andres", new BigDecimal("100"));
+
+            assertThrows(DineroInsuficienteException.class,
+                    () -> banco.transferir(origen, destino, new BigDecimal("500")));
+            assertAll(
+                    () -> assertSaldo("100", origen),
+                    () -> assertSaldo("100", destino));
+        }
+    }
+
+    @Nested
+    @DisplayName("Índice de cuentas")
+    class IndiceDeCuentas {
+
+        @Test
+        @DisplayName("Buscar cuentas por id y por persona")
+        void testBuscarCuentas() {
+            Cuenta cuenta1 = new Cuenta("Elian", new BigDecimal("1000"));
+            Cuenta cuenta2 = new Cuenta("Andres", new BigDecimal("3000"));
+            banco.addCuenta(cuenta1);
+            banco.addCuenta(cuenta2);
+
+            assertAll(
+                    () -> assertSame(cuenta1, banco.buscarPorId(cuenta1.getId()).orElseThrow()),
+                    () -> assertSame(cuenta2, banco.buscarPorPersona("Andres").orElseThrow()),
+                    () -> assertTrue(banco.buscarPorPersona("Juan").isEmpty()),
+                    () -> assertEquals(2, banco.cantidadCuentas()));
+        }
+
+        @Test
+        @DisplayName("No se puede agregar otra cuenta con un id que ya está en el banco")
+        void testIdDuplicado() {
+            Cuenta cuenta = new Cuenta("Elian", new BigDecimal("1000"));
+            banco.addCuenta(cuenta);
+            banco.addCuenta(cuenta);
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> banco.addCuenta(new Cuenta(cuenta.getId(), "Andres", 0)));
+            assertAll(
+                    () -> assertSame(cuenta, banco.buscarPorId(cuenta.getId()).orElseThrow()),
+                    () -> assertTrue(banco.buscarPorPersona("Andres").isEmpty()),
+                    () -> assertEquals(1, banco.cantidadCuentas()));
+        }
+
+        @Test
+        @DisplayName("Eliminar una cuenta la quita de los dos índices")
+        void testEliminarCuenta() {
+            Cuenta cuenta1 = new Cuenta("Elian", new BigDecimal("1000"));
+            Cuenta cuenta2 = new Cuenta("Andres", new BigDecimal("3000"));
+            banco.addCuenta(cuenta1);
+            banco.addCuenta(cuenta2);
+
+            banco.removeCuenta(cuenta1);
+
+            assertAll(
+                    () -> assertTrue(banco.buscarPorId(cuenta1.getId()).isEmpty()),
+                    () -> assertTrue(banco.buscarPorPersona("Elian").isEmpty()),
+                    () -> assertEquals(List.of(cuenta2), banco.getCuentas()));
+        }
+
+        @Test
+        @DisplayName("Las cuentas se recorren en orden de alta")
+        void testOrdenDeIteracion() {
+            List<Cuenta> cuentas = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Cuenta cuenta = new Cuenta("Cuenta " + i, BigDecimal.TEN);
+                banco.addCuenta(cuenta);
+                cuentas.add(cuenta);
+            }
+            banco.removeCuenta(cuentas.remove(50));
+
+            assertIterableEquals(cuentas, banco.getCuentas());
+        }
+
+        @Test
+        @DisplayName("La vista de cuentas es de solo lectura")
+        void testVistaSoloLectura() {
+            banco.addCuenta(new Cuenta("Elian", BigDecimal.TEN));
+            assertThrows(UnsupportedOperationException.class,
+                    () -> banco.getCuentas().add(new Cuenta("Andres", BigDecimal.TEN)));
+        }
+
+        @Test
+        @DisplayName("Una persona puede tener varias cuentas")
+        void testVariasCuentasPorPersona() {
+            Cuenta cuenta1 = new Cuenta("Elian", BigDecimal.TEN);
+            Cuenta cuenta2 = new Cuenta("Elian", BigDecimal.ONE);
+            banco.addCuenta(cuenta1);
+            banco.addCuenta(cuenta2);
+
+            assertAll(
+                    () -> assertEquals(2, banco.cantidadCuentas()),
+                    () -> assertSame(cuenta1, banco.buscarPorPersona("Elian").orElseThrow()),
+                    () -> assertEquals(List.of(cuenta1, cuenta2), banco.cuentasDePersona("Elian")));
+
+            banco.removeCuenta(cuenta1);
+            assertSame(cuenta2, banco.buscarPorPersona("Elian").orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Cambiar la persona de una cuenta actualiza el índice")
+        void testCambiarPersona() {
+            Cuenta cuenta = new Cuenta("Elian", BigDecimal.TEN);
+            banco.addCuenta(cuenta);
+
+            cuenta.setPersona("Andres");
+
+            assertAll(
+                    () -> assertTrue(banco.buscarPorPersona("Elian").isEmpty()),
+                    () -> assertSame(cuenta, banco.buscarPorPersona("Andres").orElseThrow()));
+
+            banco.removeCuenta(cuenta);
+            assertTrue(banco.buscarPorPersona("Andres").isEmpty());
+            assertTrue(banco.cuentasDePersona("Elian").isEmpty());
+        }
+
+        @Test
+        @DisplayName("setCuentas reemplaza las cuentas del banco")
+        void testSetCuentas() {
+            Cuenta cuenta1 = new Cuenta("Elian", BigDecimal.TEN);
+            Cuenta cuenta2 = new Cuenta("Andres", BigDecimal.ONE);
+            banco.addCuenta(cuenta1);
+
+            banco.setCuentas(List.of(cuenta2));
+
+            assertAll(
+                    () -> assertEquals(List.of(cuenta2), banco.getCuentas()),
+                    () -> assertTrue(banco.buscarPorPersona("Elian").isEmpty()),
+                    () -> assertSame(cuenta2, banco.buscarPorPersona("Andres").orElseThrow()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Transferencias en lote")
+    class TransferenciasEnLote {
+
+        @Test
+        @DisplayName("Las transferencias que comparten cuenta se aplican en orden")
+        void testOrdenDentroDelGrupo() {
+            Cuenta cuenta1 = new Cuenta("Elian", new BigDecimal("100"));
+            Cuenta cuenta2 = new Cuenta("Andres", BigDecimal.ZERO);
+            Cuenta cuenta3 = new Cuenta("Juan", BigDecimal.ZERO);
+
+            // la segunda solo es posible si la primera ya se aplicó
+            List<ResultadoTransferencia> resultados = banco.transferirLote(List.of(
+                    new Transferencia(cuenta1, cuenta2, new BigDecimal("100")),
+                    new Transferencia(cuenta2, cuenta3, new BigDecimal("60")),
+                    new Transferencia(cuenta3, cuenta1, new BigDecimal("10"))));
+
+            assertAll(
+                    () -> assertTrue(resultados.stream().allMatch(ResultadoTransferencia::exitosa)),
+                    () -> assertSaldo("10", cuenta1),
+                    () -> assertSaldo("40", cuenta2),
+                    () -> assertSaldo("50", cuenta3));
+        }
+
+        @Test
+        @DisplayName("Una transferencia rechazada no aborta el lote")
+        void testFalloParcial() {
+            Cuenta cuenta1 = new Cuenta("Elian", new BigDecimal("100"));
+            Cuenta cuenta2 = new Cuenta("Andres", new BigDecimal("100"));
+            Cuenta cuenta3 = new Cuenta("Juan", new BigDecimal("100"));
+            Cuenta cuenta4 = new Cuenta("Pedro", new BigDecimal("100"));
+
+            List<ResultadoTransferencia> resultados = banco.transferirLote(List.of(
+                    new Transferencia(cuenta1, cuenta2, new BigDecimal("500")),
+                    new Transferencia(cuenta3, cuenta4, new BigDecimal("50")),
+                    new Transferencia(cuenta1, cuenta2, new BigDecimal("50"))));
+
+            assertAll(
+                    () -> assertFalse(resultados.get(0).exitosa()),
+                    () -> assertInstanceOf(DineroInsuficienteException.class, resultados.get(0).error()),
+                    () -> assertTrue(resultados.get(1).exitosa()),
+                    () -> assertTrue(resultados.get(2).exitosa()),
+                    () -> assertSaldo("50", cuenta1),
+                    () -> assertSaldo("150", cuenta2),
+                    () -> assertSaldo("50", cuenta3),
+                    () -> assertSaldo("150", cuenta4));
+        }
+
+        @Test
+        @DisplayName("Un lote grande conserva el dinero y da el mismo resultado que en serie")
+        void testLoteGrandeIgualQueEnSerie() {
+            List<Cuenta> cuentas = new ArrayList<>();
+            List<Cuenta> copias = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                cuentas.add(new Cuenta("Cuenta " + i, new BigDecimal("100")));
+                copias.add(new Cuenta("Copia " + i, new BigDecimal("100")));
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Transferencia> lote = new ArrayList<>();
+            List<Transferencia> loteCopias = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                // pares de cuentas cercanas para que haya muchos grupos distintos
+                int origen = random.nextInt(cuentas.size());
+                int destino = (origen + random.nextInt(2)) % cuentas.size();
+                BigDecimal monto = new BigDecimal(random.nextInt(1, 80));
+                lote.add(new Transferencia(cuentas.get(origen), cuentas.get(destino), monto));
+                loteCopias.add(new Transferencia(copias.get(origen), copias.get(destino), monto));
+            }
+
+            List<ResultadoTransferencia> resultados = banco.transferirLote(lote);
+            List<Boolean> enSerie = new ArrayList<>();
+            for (Transferencia t : loteCopias) {
+                try {
+                    banco.transferir(t.origen(), t.destino(), t.monto());
+                    enSerie.add(true);
+                } catch (DineroInsuficienteException e) {
+                    enSerie.add(false);
+                }
+            }
+
+            assertEquals(enSerie, resultados.stream().map(ResultadoTransferencia::exitosa).toList());
+            assertEquals(0, total(copias).compareTo(total(cuentas)));
+            for (int i = 0; i < cuentas.size(); i++) {
+                assertEquals(copias.get(i).getSaldoUnidades(), cuentas.get(i).getSaldoUnidades());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Agregados de saldos")
+    class Agregados {
+
+        @Test
+        @DisplayName("El total es siempre el mismo aunque haya transferencias en curso")
+        void testTotalConsistenteConTransferencias() throws InterruptedException {
+            List<Cuenta> cuentas = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                Cuenta cuenta = new Cuenta("Cuenta " + i, new BigDecimal("1000.12345"));
+                cuentas.add(cuenta);
+                banco.addCuenta(cuenta);
+            }
+            BigDecimal esperado = total(cuentas);
+            AtomicInteger inconsistentes = new AtomicInteger();
+            AtomicInteger turno = new AtomicInteger();
+
+            enParalelo(4, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                // un hilo consulta totales mientras los demás transfieren
+                if (turno.getAndIncrement() == 0) {
+                    for (int i = 0; i < 500; i++) {
+                        if (banco.totalSaldos().compareTo(esperado) != 0) {
+                            inconsistentes.incrementAndGet();
+                        }
+                    }
+                    return;
+                }
+                for (int i = 0; i < 20_000; i++) {
+                    try {
+                        banco.transferir(cuentas.get(random.nextInt(cuentas.size())),
+                                cuentas.get(random.nextInt(cuentas.size())), new BigDecimal(random.nextInt(1, 500)));
+                    } catch (DineroInsuficienteException e) {
+                        // esperado
+                    }
+                }
+            });
+
+            assertAll(
+                    () -> assertEquals(0, inconsistentes.get()),
+                    () -> assertEquals(0, esperado.compareTo(banco.totalSaldos())));
+        }
+
+        @Test
+        @DisplayName("Con versiones el total es siempre el mismo sin detener las transferencias")
+        void testTotalConVersiones() throws InterruptedException {
+            List<Cuenta> cuentas = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                Cuenta cuenta = new Cuenta("Cuenta " + i, new BigDecimal("1000.12345"));
+                cuentas.add(cuenta);
+                banco.addCuenta(cuenta);
+            }
+            banco.activarVersiones();
+            BigDecimal esperado = total(cuentas);
+            AtomicInteger inconsistentes = new AtomicInteger();
+            AtomicInteger turno = new AtomicInteger();
+
+            enParalelo(4, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                // dos hilos consultan totales mientras los demás transfieren
+                if (turno.getAndIncrement() < 2) {
+                    for (int i = 0; i < 2_000; i++) {
+                        if (banco.totalSaldos().compareTo(esperado) != 0) {
+                            inconsistentes.incrementAndGet();
+                        }
+                    }
+                    return;
+                }
+                for (int i = 0; i < 20_000; i++) {
+                    Cuenta origen = cuentas.get(random.nextInt(cuentas.size()));
+                    Cuenta destino = cuentas.get(random.nextInt(cuentas.size()));
+                    try {
+                        banco.transferir(origen, destino, new BigDecimal(random.nextInt(1, 500)));
+                    } catch (DineroInsuficienteException e) {
+                        // esperado
+                    }
+                }
+            });
+
+            assertAll(
+                    () -> assertEquals(0, inconsistentes.get()),
+                    () -> assertEquals(0, esperado.compareTo(banco.totalSaldos())));
+        }
+
+        @Test
+        @DisplayName("Con versiones el resumen sigue las altas, bajas y cambios de saldo")
+        void testResumenConVersiones() {
+            Cuenta elian = new Cuenta("Elian", new BigDecimal("1000"));
+            Cuenta andres = new Cuenta("Andres", new BigDecimal("3000"));
+            banco.addCuenta(elian);
+            banco.activarVersiones();
+            banco.addCuenta(andres);
+
+            elian.debito(new BigDecimal("100"));
+            andres.setSaldo(new BigDecimal("2000.5"));
+            banco.transferir(andres, elian, new BigDecimal("0.5"));
+
+            ResumenSaldos resumen = banco.resumenSaldos();
+            assertAll(
+                    () -> assertEquals(2, resumen.cantidadCuentas()),
+                    () -> assertEquals(0, new BigDecimal("2900.5").compareTo(resumen.total())),
+                    () -> assertEquals(0, new BigDecimal("900.5").compareTo(resumen.minimo().orElseThrow())));
+
+            banco.removeCuenta(andres);
+            andres.credito(BigDecimal.TEN);
+
+            assertEquals(0, new BigDecimal("900.5").compareTo(banco.totalSaldos()));
+        }
+
+        @Test
+        @DisplayName("Mínimo, máximo, conteos e histograma sobre saldos conocidos")
+        void testConsultasSobreSaldosConocidos() {
+            for (String saldo : new String[] { "0", "10.5", "99.99999", "100", "250", "1000.12345" }) {
+                banco.addCuenta(new Cuenta("Persona " + saldo, new BigDecimal(saldo)));
+            }
+
+            ResumenSaldos resumen = banco.resumenSaldos();
+
+            assertAll(
+                    () -> assertEquals(6, resumen.cantidadCuentas()),
+                    () -> assertEquals(0, new BigDecimal("1460.62344").compareTo(resumen.total())),
+                    () -> assertEquals(0, BigDecimal.ZERO.compareTo(resumen.minimo().orElseThrow())),
+                    () -> assertEquals(0, new BigDecimal("1000.12345").compareTo(resumen.maximo().orElseThrow())),
+                    () -> assertEquals(3, resumen.contarMenoresA(new BigDecimal("100"))),
+                    () -> assertEquals(2, banco.contarCuentas(saldo -> saldo >= Dinero.aUnidades(new BigDecimal("250")))),
+                    () -> assertArrayEquals(new long[] { 1, 2, 1, 2 },
+                            resumen.histograma(BigDecimal.ONE, new BigDecimal("100"), new BigDecimal("200"))));
+        }
+
+        @Test
+        @DisplayName("Un banco sin cuentas no tiene mínimo ni máximo")
+        void testBancoVacio() {
+            ResumenSaldos resumen = banco.resumenSaldos();
+
+            assertAll(
+                    () -> assertEquals(0, resumen.cantidadCuentas()),
+                    () -> assertEquals(0, BigDecimal.ZERO.compareTo(resumen.total())),
+                    () -> assertTrue(resumen.minimo().isEmpty()),
+                    () -> assertTrue(resumen.maximo().isEmpty()),
+                    () -> assertArrayEquals(new long[] { 0, 0 }, resumen.histograma(BigDecimal.TEN)));
+        }
+
+        @Test
+        @DisplayName("Los límites del histograma deben ser crecientes")
+        void testHistogramaLimitesDesordenados() {
+            ResumenSaldos resumen = banco.resumenSaldos();
+            assertThrows(IllegalArgumentException.class,
+                    () -> resumen.histograma(BigDecimal.TEN, BigDecimal.ONE));
+        }
+    }
+
+    @Nested
+    @DisplayName("Índice de saldos")
+    class IndiceDeSaldos {
+
+        private List<Cuenta> porSaldoDescendente() {
+            List<Cuenta> cuentas = new ArrayList<>(banco.getCuentas());
+            cuentas.sort(Comparator.comparingLong(Cuenta::getSaldoUnidades).reversed()
+                    .thenComparing(Comparator.comparingLong(Cuenta::getId).reversed()));
+            return cuentas;
+        }
+
+        @Test
+        @DisplayName("Mayores saldos y rangos siguen a débitos, créditos y bajas")
+        void testMayoresSaldosYRangos() {
+            Cuenta elian = new Cuenta("Elian", new BigDecimal("1000"));
+            Cuenta andres = new Cuenta("Andres", new BigDecimal("3000"));
+            Cuenta juan = new Cuenta("Juan", new BigDecimal("500"));
+            banco.addCuenta(elian);
+            banco.addCuenta(andres);
+            banco.addCuenta(juan);
+
+            // sin índice se ordena una copia de las cuentas
+            assertEquals(List.of(andres, elian), banco.mayoresSaldos(2));
+            banco.activarIndiceSaldos();
+
+            banco.transferir(andres, juan, new BigDecimal("2800"));
+            elian.credito(new BigDecimal("0.5"));
+
+            assertAll(
+                    () -> assertEquals(List.of(juan, elian), banco.mayoresSaldos(2)),
+                    () -> assertEquals(List.of(juan, elian, andres), banco.mayoresSaldos(10)),
+                    () -> assertEquals(List.of(elian, juan), banco.cuentasConSaldoEntre(new BigDecimal("1000.5"),
+                            new BigDecimal("3300"))),
+                    () -> assertEquals(List.of(andres, elian, juan),
+                            banco.cuentasConSaldoEntre(BigDecimal.ZERO, new BigDecimal("3300"))),
+                    () -> assertTrue(banco.cuentasConSaldoEntre(BigDecimal.TEN, BigDecimal.ONE).isEmpty()),
+                    () -> assertThrows(IllegalArgumentException.class, () -> banco.mayoresSaldos(-1)));
+
+            banco.removeCuenta(juan);
+            juan.credito(BigDecimal.TEN);
+
+            assertEquals(List.of(elian, andres), banco.mayoresSaldos(3));
+        }
+
+        @Test
+        @DisplayName("Eliminar con una copia de la cuenta la saca del índice y de las versiones")
+        void testEliminarConCopia() {
+            Cuenta elian = new Cuenta("Elian", new BigDecimal("1000"));
+            Cuenta andres = new Cuenta("Andres", new BigDecimal("3000"));
+            banco.addCuenta(elian);
+            banco.addCuenta(andres);
+            banco.activarIndiceSaldos();
+            banco.activarVersiones();
+
+            banco.removeCuenta(new Cuenta(elian.getId(), "Elian", elian.getSaldoUnidades()));
+            elian.credito(new BigDecimal("5000"));
+
+            assertAll(
+                    () -> assertEquals(1, banco.cantidadCuentas()),
+                    () -> assertEquals(List.of(andres), banco.mayoresSaldos(10)),
+                    () -> assertTrue(banco.buscarPorPersona("Elian").isEmpty()),
+                    () -> assertNull(elian.getRelojVersiones()));
+        }
+
+        @Test
+        @DisplayName("Después de transferencias concurrentes el índice coincide con recorrer las cuentas")
+        void testIndiceConTransferenciasConcurrentes() throws InterruptedException {
+            banco.activarIndiceSaldos();
+            List<Cuenta> cuentas = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Cuenta cuenta = new Cuenta("Cuenta " + i, new BigDecimal("1000"));
+                cuentas.add(cuenta);
+                banco.addCuenta(cuenta);
+            }
+
+            enParalelo(4, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    try {
+                        banco.transferir(cuentas.get(random.nextInt(cuentas.size())),
+                                cuentas.get(random.nextInt(cuentas.size())), new BigDecimal(random.nextInt(1, 300)));
+                    } catch (DineroInsuficienteException e) {
+                        // esperado
+                    }
+                    // las consultas no se frenan ni devuelven cuentas repetidas
+                    List<Cuenta> mayores = banco.mayoresSaldos(10);
+                    assertEquals(10, mayores.size());
+                    assertEquals(10, Set.copyOf(mayores).size());
+                }
+            });
+
+            assertAll(
+                    () -> assertEquals(porSaldoDescendente(), banco.mayoresSaldos(cuentas.size())),
+                    () -> assertEquals(porSaldoDescendente().subList(0, 5), banco.mayoresSaldos(5)));
+        }
+    }
+}
@@ -2,9 +2,12 @@ package com.elianfm.junitapp.models;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 //import org.junit.jupiter.api.Assertions; // JUnit 5 se puede usar de esta forma pero no es necesario
@@ -310,12 +313,44 @@ class CuentaTest {
         Cuenta cuenta = new Cuenta("Elian", new BigDecimal("1000.12345"));
         Cuenta cuenta2 = new Cuenta("Elian", new BigDecimal("1000.12345"));
 
-        // Con assertEquals verificamos que los dos objetos sean iguales
-        // teniendo en cuenta que lombok sobreescribe el método equals
-        // y hashCode para comparar los valores de los atributos,
-        // sin lombok tendríamos que sobreescribir estos métodos.
-        assertEquals(cuenta, cuenta2);
+        // Con assertNotEquals verificamos que los dos objetos sean distintos:
+        // lombok genera equals y hashCode solo con el id de la cuenta
+        // (@EqualsAndHashCode.Include), así que dos cuentas con los mismos
+        // datos siguen siendo cuentas distintas.
+        assertNotEquals(cuenta, cuenta2);
 
+        // La misma cuenta es igual a sí misma aunque cambie su saldo, y su
+        // hashCode no cambia
+        int hashCode = cuenta.hashCode();
+        cuenta.debito(new BigDecimal(100));
+        assertEquals(cuenta, cuenta);
+        assertEquals(hashCode, cuenta.hashCode());
+
+        // Una cuenta recreada con el mismo id (por ejemplo desde una instantánea)
+        // es igual a la original
+        assertEquals(cuenta, new Cuenta(cuenta.getId(), "Elian", 0));
+    }
+
+    @Test
+    @DisplayName("Probando cuentas como claves de mapas y sets")
+    void testCuentaComoClave() {
+        Banco banco = new Banco("Banco de la nación");
+        Cuenta cuenta = new Cuenta("Elian", new BigDecimal("1000.12345"));
+        banco.addCuenta(cuenta);
+
+        Set<Cuenta> cuentas = new HashSet<>();
+        cuentas.add(cuenta);
+        Map<Cuenta, String> alias = new HashMap<>();
+        alias.put(cuenta, "principal");
+
+        // Cambiar el saldo no cambia el lugar de la cuenta en el set o el mapa,
+        // y ni equals ni toString recorren el ciclo cuenta -> banco -> cuentas
+        cuenta.credito(new BigDecimal(500));
+        assertAll(
+                () -> assertTrue(cuentas.contains(cuenta)),
+                () -> assertEquals("principal", alias.get(cuenta)),
+                () -> assertNotEquals(banco, new Banco("Banco de la nación")),
+                () -> assertTrue(banco.toString().contains("Elian")));
     }
 
     /*
@@ -376,6 +411,34 @@ class CuentaTest {
         assertEquals(esperado, actual);
     }
 
+    @Test
+    @DisplayName("Probando intentar debito sin excepciones")
+    void testIntentarDebito() {
+        Cuenta cuenta = new Cuenta("Elian", new BigDecimal("1000.12345"));
+
+        // Con saldo suficiente se aplica, sin saldo devuelve el resultado y la
+        // cuenta queda igual
+        assertAll(
+                () -> assertEquals(ResultadoDebito.APLICADO, cuenta.intentarDebito(new BigDecimal(100))),
+                () -> assertEquals(ResultadoDebito.DINERO_INSUFICIENTE, cuenta.intentarDebito(new BigDecimal(1500))),
+                () -> assertEquals(0, new BigDecimal("900.12345").compareTo(cuenta.getSaldo())));
+    }
+
+    @Test
+    @DisplayName("Probando excepcion compartida sin stack trace")
+    void testExigirDebitoSinTraza() {
+        Cuenta cuenta = new Cuenta("Elian", new BigDecimal("1000.12345"));
+
+        DineroInsuficienteException exception = assertThrows(DineroInsuficienteException.class,
+                () -> cuenta.intentarDebito(new BigDecimal(1500)).exigir());
+
+        // Siempre es la misma instancia y no tiene stack trace
+        assertAll(
+                () -> assertEquals("Dinero insuficiente", exception.getMessage()),
+                () -> assertEquals(0, exception.getStackTrace().length),
+                () -> assertSame(DineroInsuficienteException.sinTraza(), exception));
+    }
+
     @Test
     @DisplayName("Probando transferencia de dinero")
     void testTransferirDinero() {
@@ -0,0 +1,112 @@
+package com.elianfm.junitapp.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DevengamientoTest {
+
+    static final Devengamiento ESQUEMA = new Devengamiento(List.of(
+            new Devengamiento.Tramo(new BigDecimal("10000"), new BigDecimal("0.000205479")),
+            new Devengamiento.Tramo(BigDecimal.ZERO, new BigDecimal("0.000136986")),
+            new Devengamiento.Tramo(new BigDecimal("1000000"), new BigDecimal("0.5"))),
+            new BigDecimal("0.75"));
+
+    static long[] calcularUno(Devengamiento devengamiento, long saldo) {
+        long[] intereses = new long[1];
+        long[] comisiones = new long[1];
+        devengamiento.calcular(new long[] { saldo }, intereses, comisiones);
+        return new long[] { intereses[0], comisiones[0] };
+    }
+
+    @Test
+    @DisplayName("Los arreglos dan exactamente el mismo saldo que BigDecimal")
+    void testIgualQueBigDecimal() {
+        Random random = new Random(42);
+        long[] saldos = new long[100_000];
+        for (int i = 0; i < saldos.length; i++) {
+            // saldos de todas las magnitudes, incluidos negativos y grandes (sin llegar
+            // a desbordar con la tasa del 50%)
+            saldos[i] = switch (i % 4) {
+                case 0 -> random.nextInt(100_000_000);
+                case 1 -> random.nextLong() >>> (2 + random.nextInt(62));
+                case 2 -> -random.nextInt(1_000_000);
+                default -> random.nextLong(200_000_000_000L);
+            };
+        }
+        saldos[0] = Long.MAX_VALUE / 2;
+
+        long[] intereses = new long[saldos.length];
+        long[] comisiones = new long[saldos.length];
+        ESQUEMA.calcular(saldos, intereses, comisiones);
+
+        for (int i = 0; i < saldos.length; i++) {
+            BigDecimal esperado = ESQUEMA.calcular(Dinero.aBigDecimal(saldos[i]));
+            assertEquals(esperado, Dinero.aBigDecimal(saldos[i] + intereses[i] - comisiones[i]),
+                    "Saldo " + saldos[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Los empates se redondean al par")
+    void testRedondeoHalfEven() {
+        Devengamiento mitad = new Devengamiento(List.of(new Devengamiento.Tramo(BigDecimal.ZERO, new BigDecimal("0.5"))),
+                BigDecimal.ZERO);
+
+        assertAll(
+                // 5 * 0,5 = 2,5 unidades -> 2; 7 * 0,5 = 3,5 -> 4
+                () -> assertEquals(2, calcularUno(mitad, 5)[0]),
+                () -> assertEquals(4, calcularUno(mitad, 7)[0]),
+                () -> assertEquals(new BigDecimal("0.00007"), mitad.calcular(new BigDecimal("0.00005"))),
+                () -> assertEquals(new BigDecimal("0.00011"), mitad.calcular(new BigDecimal("0.00007"))));
+    }
+
+    @Test
+    @DisplayName("La comisión nunca deja la cuenta en negativo")
+    void testComisionTopeada() {
+        assertAll(
+                () -> assertArrayEquals(new long[] { 7, 50_007 }, calcularUno(ESQUEMA, 50_000)),
+                () -> assertArrayEquals(new long[] { 0, 0 }, calcularUno(ESQUEMA, -50_000)),
+                () -> assertEquals(0, BigDecimal.ZERO.compareTo(ESQUEMA.calcular(new BigDecimal("0.5")))));
+    }
+
+    @Test
+    @DisplayName("Aplicar sobre un banco ajusta cada cuenta y devuelve los totales")
+    void testAplicarSobreBanco() {
+        Banco banco = new Banco("Banco de la nación");
+        Cuenta chica = new Cuenta("Elian", new BigDecimal("1000.12345"));
+        Cuenta grande = new Cuenta("Andres", new BigDecimal("20000"));
+        banco.addCuenta(chica);
+        banco.addCuenta(grande);
+        BigDecimal esperadoChica = ESQUEMA.calcular(chica.getSaldo());
+        BigDecimal esperadoGrande = ESQUEMA.calcular(grande.getSaldo());
+
+        Devengamiento.Resultado resultado = ESQUEMA.aplicar(banco);
+
+        assertAll(
+                () -> assertEquals(2, resultado.cuentas()),
+                () -> assertEquals(esperadoChica, chica.getSaldo()),
+                () -> assertEquals(esperadoGrande, grande.getSaldo()),
+                // 1000,12345 * 0,000136986 = 0,13700... y 20000 * 0,000205479 = 4,10958
+                () -> assertEquals(new BigDecimal("4.24658"), resultado.intereses()),
+                () -> assertEquals(new BigDecimal("1.50000"), resultado.comisiones()));
+    }
+
+    @Test
+    @DisplayName("Las tasas fuera de rango o con demasiados decimales se rechazan")
+    void testTasasInvalidas() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new Devengamiento(
+                        List.of(new Devengamiento.Tramo(BigDecimal.ZERO, new BigDecimal("1.5"))), BigDecimal.ZERO)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new Devengamiento(
+                        List.of(new Devengamiento.Tramo(BigDecimal.ZERO, new BigDecimal("0.0000000001"))),
+                        BigDecimal.ZERO)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new Devengamiento(
+                        List.of(new Devengamiento.Tramo(BigDecimal.ONE.negate(), BigDecimal.ONE)), BigDecimal.ZERO)));
+    }
+}
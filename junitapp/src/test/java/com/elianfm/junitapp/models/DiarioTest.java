@@ -0,0 +1,328 @@
+package com.elianfm.junitapp.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+
+class DiarioTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Reconstruir el banco desde el diario después de cerrarlo")
+    void testReconstruir() throws IOException {
+        Path carpeta = directorio.resolve("diario");
+        Cuenta cuenta1 = new Cuenta("Elian", new BigDecimal("1000.12345"));
+        Cuenta cuenta2 = new Cuenta("Andres", new BigDecimal("3000"));
+        Cuenta cuenta3 = new Cuenta("Juan", new BigDecimal("10"));
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco banco = new Banco("Banco de la nación");
+            banco.setDiario(diario);
+            banco.addCuenta(cuenta1);
+            banco.addCuenta(cuenta2);
+            banco.addCuenta(cuenta3);
+            banco.transferir(cuenta2, cuenta1, new BigDecimal("500"));
+            // las transferencias rechazadas no se registran
+            assertThrows(DineroInsuficienteException.class,
+                    () -> banco.transferir(cuenta3, cuenta1, new BigDecimal("50")));
+            banco.transferir(cuenta3, cuenta2, new BigDecimal("10"));
+            banco.removeCuenta(cuenta3);
+
+            assertEquals(6, diario.cantidadRegistros());
+        }
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco reconstruido = diario.reconstruir("Banco de la nación");
+
+            assertAll(
+                    () -> assertEquals(2, reconstruido.cantidadCuentas()),
+                    () -> assertTrue(reconstruido.buscarPorPersona("Juan").isEmpty()),
+                    () -> assertEquals(cuenta1.getSaldoUnidades(),
+                            reconstruido.buscarPorId(cuenta1.getId()).orElseThrow().getSaldoUnidades()),
+                    () -> assertEquals(cuenta2.getSaldoUnidades(),
+                            reconstruido.buscarPorPersona("Andres").orElseThrow().getSaldoUnidades()));
+        }
+    }
+
+    @Test
+    @DisplayName("El banco reconstruido sigue escribiendo en el mismo diario")
+    void testContinuarDiario() throws IOException {
+        Path carpeta = directorio.resolve("diario");
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco banco = new Banco("Banco");
+            banco.setDiario(diario);
+            banco.addCuenta(new Cuenta("Elian", new BigDecimal("100")));
+            banco.addCuenta(new Cuenta("Andres", new BigDecimal("100")));
+        }
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco banco = diario.reconstruir("Banco");
+            banco.transferir(banco.buscarPorPersona("Elian").orElseThrow(),
+                    banco.buscarPorPersona("Andres").orElseThrow(), new BigDecimal("40"));
+            // la cuenta nueva no puede repetir el id de las recuperadas
+            banco.addCuenta(new Cuenta("Juan", new BigDecimal("5")));
+        }
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco banco = diario.reconstruir("Banco");
+            assertAll(
+                    () -> assertEquals(3, banco.cantidadCuentas()),
+                    () -> assertEquals(0, new BigDecimal("60")
+                            .compareTo(banco.buscarPorPersona("Elian").orElseThrow().getSaldo())),
+                    () -> assertEquals(0, new BigDecimal("140")
+                            .compareTo(banco.buscarPorPersona("Andres").orElseThrow().getSaldo())));
+        }
+    }
+
+    @Test
+    @DisplayName("El diario crece y reproduce transferencias concurrentes")
+    void testTransferenciasConcurrentes() throws Exception {
+        Path carpeta = directorio.resolve("diario");
+        List<Cuenta> cuentas = new ArrayList<>();
+        Banco banco = new Banco("Banco");
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            banco.setDiario(diario);
+            for (int i = 0; i < 32; i++) {
+                Cuenta cuenta = new Cuenta("Cuenta " + i, new BigDecimal("1000"));
+                banco.addCuenta(cuenta);
+                cuentas.add(cuenta);
+            }
+            // más registros que un segmento para forzar la rotación
+            BancoTest.enParalelo(4, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 40_000; i++) {
+                    try {
+                        banco.transferir(cuentas.get(random.nextInt(cuentas.size())),
+                                cuentas.get(random.nextInt(cuentas.size())), new BigDecimal(random.nextInt(1, 100)));
+                    } catch (DineroInsuficienteException e) {
+                        // no queda en el diario
+                    }
+                }
+            });
+        }
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco reconstruido = diario.reconstruir("Banco");
+            for (Cuenta cuenta : cuentas) {
+                assertEquals(cuenta.getSaldoUnidades(),
+                        reconstruido.buscarPorId(cuenta.getId()).orElseThrow().getSaldoUnidades());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Una persona demasiado larga para el registro no se agrega")
+    void testPersonaDemasiadoLarga() throws IOException {
+        try (Diario diario = Diario.abrir(directorio.resolve("diario"))) {
+            Banco banco = new Banco("Banco");
+            banco.setDiario(diario);
+            assertThrows(IllegalArgumentException.class,
+                    () -> banco.addCuenta(new Cuenta("Una persona con un nombre demasiado largo", BigDecimal.ONE)));
+            assertEquals(0, banco.cantidadCuentas());
+            assertEquals(0, diario.cantidadRegistros());
+        }
+    }
+
+    @Test
+    @DisplayName("Con segmentos chicos el diario rota de archivo y se sigue reconstruyendo")
+    void testRotacionSegmentos() throws IOException {
+        Path carpeta = directorio.resolve("diario");
+        Cuenta cuenta1 = new Cuenta("Elian", new BigDecimal("1000"));
+        Cuenta cuenta2 = new Cuenta("Andres", new BigDecimal("1000"));
+
+        try (Diario diario = Diario.abrir(carpeta, 16, 4, 10, TimeUnit.MILLISECONDS)) {
+            Banco banco = new Banco("Banco");
+            banco.setDiario(diario);
+            banco.addCuenta(cuenta1);
+            banco.addCuenta(cuenta2);
+            for (int i = 0; i < 100; i++) {
+                banco.transferir(cuenta1, cuenta2, BigDecimal.ONE);
+            }
+            assertEquals(102, diario.cantidadRegistros());
+            assertEquals(7, diario.archivosSegmentos().size());
+        }
+
+        // el diario existente sigue con su tamaño de segmento
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco banco = diario.reconstruir("Banco");
+            banco.transferir(banco.buscarPorId(cuenta2.getId()).orElseThrow(),
+                    banco.buscarPorId(cuenta1.getId()).orElseThrow(), new BigDecimal("10"));
+            assertEquals(103, diario.cantidadRegistros());
+        }
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco banco = diario.reconstruir("Banco");
+            assertEquals(0, new BigDecimal("910").compareTo(banco.buscarPorId(cuenta1.getId()).orElseThrow().getSaldo()));
+            assertEquals(0, new BigDecimal("1090").compareTo(banco.buscarPorId(cuenta2.getId()).orElseThrow().getSaldo()));
+        }
+    }
+
+    @Test
+    @DisplayName("Un registro roto al final del diario se descarta al abrirlo")
+    void testColaRota() throws IOException {
+        Path carpeta = directorio.resolve("diario");
+        Cuenta cuenta1 = new Cuenta("Elian", new BigDecimal("100"));
+        Cuenta cuenta2 = new Cuenta("Andres", new BigDecimal("100"));
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco banco = new Banco("Banco");
+            banco.setDiario(diario);
+            banco.addCuenta(cuenta1);
+            banco.addCuenta(cuenta2);
+            banco.transferir(cuenta1, cuenta2, new BigDecimal("10"));
+            banco.transferir(cuenta1, cuenta2, new BigDecimal("20"));
+        }
+
+        // se rompe el monto de la última transferencia, como una escritura a medias
+        Path segmento = Files.list(carpeta).findFirst().orElseThrow();
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.wrap(new byte[] { 7 }), 3L * Diario.TAMANO_REGISTRO + 30);
+        }
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            assertEquals(3, diario.cantidadRegistros());
+            Banco banco = diario.reconstruir("Banco");
+            assertEquals(0, new BigDecimal("90").compareTo(banco.buscarPorId(cuenta1.getId()).orElseThrow().getSaldo()));
+            // lo que se escribe ahora ocupa el lugar del registro descartado
+            banco.transferir(banco.buscarPorId(cuenta2.getId()).orElseThrow(),
+                    banco.buscarPorId(cuenta1.getId()).orElseThrow(), new BigDecimal("5"));
+        }
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco banco = diario.reconstruir("Banco");
+            assertEquals(4, diario.cantidadRegistros());
+            assertEquals(0, new BigDecimal("95").compareTo(banco.buscarPorId(cuenta1.getId()).orElseThrow().getSaldo()));
+        }
+    }
+
+    @Test
+    @DisplayName("Con el diario cerrado la transferencia falla sin tocar los saldos")
+    void testDiarioCerrado() throws IOException {
+        Cuenta cuenta1 = new Cuenta("Elian", new BigDecimal("100"));
+        Cuenta cuenta2 = new Cuenta("Andres", new BigDecimal("100"));
+        Banco banco = new Banco("Banco");
+        banco.addCuenta(cuenta1);
+        banco.addCuenta(cuenta2);
+        Diario diario = Diario.abrir(directorio.resolve("diario"));
+        banco.setDiario(diario);
+        diario.close();
+
+        assertThrows(IllegalStateException.class, () -> banco.transferir(cuenta1, cuenta2, BigDecimal.TEN));
+        List<ResultadoTransferencia> resultados = banco
+                .transferirLote(List.of(new Transferencia(cuenta1, cuenta2, BigDecimal.TEN)));
+        assertFalse(resultados.get(0).exitosa());
+        assertThrows(IllegalStateException.class, () -> cuenta1.credito(BigDecimal.ONE));
+        assertThrows(IllegalStateException.class, () -> DevengamientoTest.ESQUEMA.aplicar(banco));
+        assertEquals(0, new BigDecimal("100").compareTo(cuenta1.getSaldo()));
+        assertEquals(0, new BigDecimal("100").compareTo(cuenta2.getSaldo()));
+    }
+
+    @Test
+    @DisplayName("transferirDurable vuelve con la transferencia ya sincronizada")
+    void testTransferirDurable() throws Exception {
+        Cuenta cuenta1 = new Cuenta("Elian", new BigDecimal("100"));
+        Cuenta cuenta2 = new Cuenta("Andres", new BigDecimal("100"));
+        // un intervalo largo: sin la espera el fsync tardaría un minuto
+        try (Diario diario = Diario.abrir(directorio.resolve("diario"), 1024, 1, TimeUnit.MINUTES)) {
+            Banco banco = new Banco("Banco");
+            banco.addCuenta(cuenta1);
+            banco.addCuenta(cuenta2);
+            banco.setDiario(diario);
+            banco.transferirDurable(cuenta1, cuenta2, BigDecimal.ONE);
+            assertEquals(3, diario.registrosDurables());
+
+            BancoTest.enParalelo(4, () -> {
+                for (int i = 0; i < 10; i++) {
+                    banco.transferirDurable(cuenta1, cuenta2, BigDecimal.ONE);
+                }
+            });
+            assertEquals(43, diario.registrosDurables());
+        }
+    }
+
+    @Test
+    @DisplayName("Los movimientos hechos directamente sobre las cuentas también quedan en el diario")
+    void testMovimientosDirectos() throws IOException {
+        Path carpeta = directorio.resolve("diario");
+        Cuenta cuenta1 = new Cuenta("Elian", new BigDecimal("100"));
+        Cuenta cuenta2 = new Cuenta("Andres", new BigDecimal("100"));
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco banco = new Banco("Banco");
+            banco.addCuenta(cuenta1);
+            banco.addCuenta(cuenta2);
+            banco.setDiario(diario);
+            cuenta1.debito(new BigDecimal("30"));
+            cuenta2.credito(new BigDecimal("12.5"));
+            assertThrows(DineroInsuficienteException.class, () -> cuenta1.debito(new BigDecimal("1000")));
+            cuenta2.setSaldo(new BigDecimal("7"));
+            cuenta1.setPersona("Elian F");
+            new Devengamiento(List.of(new Devengamiento.Tramo(BigDecimal.ZERO, new BigDecimal("0.1"))),
+                    BigDecimal.ZERO).aplicar(banco);
+        }
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco banco = diario.reconstruir("Banco");
+            Cuenta reconstruida1 = banco.buscarPorId(cuenta1.getId()).orElseThrow();
+            assertAll(
+                    () -> assertEquals("Elian F", reconstruida1.getPersona()),
+                    () -> assertTrue(banco.buscarPorPersona("Elian F").isPresent()),
+                    () -> assertEquals(cuenta1.getSaldoUnidades(), reconstruida1.getSaldoUnidades()),
+                    () -> assertEquals(cuenta2.getSaldoUnidades(),
+                            banco.buscarPorId(cuenta2.getId()).orElseThrow().getSaldoUnidades()));
+        }
+    }
+
+    @Test
+    @DisplayName("Cambiar la persona mientras se dan de baja cuentas no deja registros después de la baja")
+    void testPersonaConBajasConcurrentes() throws Exception {
+        Path carpeta = directorio.resolve("diario");
+        List<Cuenta> cuentas = new ArrayList<>();
+        AtomicInteger turno = new AtomicInteger();
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            Banco banco = new Banco("Banco");
+            banco.setDiario(diario);
+            for (int i = 0; i < 200; i++) {
+                Cuenta cuenta = new Cuenta("Cuenta " + i, new BigDecimal("10"));
+                banco.addCuenta(cuenta);
+                cuentas.add(cuenta);
+            }
+            BancoTest.enParalelo(2, () -> {
+                if (turno.getAndIncrement() == 0) {
+                    cuentas.forEach(banco::removeCuenta);
+                    return;
+                }
+                for (int vuelta = 0; vuelta < 20; vuelta++) {
+                    for (Cuenta cuenta : cuentas) {
+                        cuenta.setPersona("Persona " + vuelta);
+                    }
+                }
+            });
+        }
+
+        try (Diario diario = Diario.abrir(carpeta)) {
+            assertEquals(0, diario.reconstruir("Banco").cantidadCuentas());
+        }
+    }
+}
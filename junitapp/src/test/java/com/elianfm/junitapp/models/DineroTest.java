@@ -0,0 +1,44 @@
+package com.elianfm.junitapp.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DineroTest {
+
+    @Test
+    @DisplayName("Conversión de ida y vuelta entre BigDecimal y unidades")
+    void testConversion() {
+        assertEquals(100012345L, Dinero.aUnidades(new BigDecimal("1000.12345")));
+        assertEquals(50000000L, Dinero.aUnidades(new BigDecimal(500)));
+        assertEquals(new BigDecimal("1000.12345"), Dinero.aBigDecimal(100012345L));
+    }
+
+    @Test
+    @DisplayName("Montos con más decimales que la escala no se redondean")
+    void testSinRedondeo() {
+        assertThrows(ArithmeticException.class, () -> Dinero.aUnidades(new BigDecimal("0.000001")));
+    }
+
+    @Test
+    @DisplayName("Sumas y restas que desbordan el long lanzan ArithmeticException")
+    void testDesborde() {
+        assertAll(
+                () -> assertThrows(ArithmeticException.class, () -> Dinero.sumar(Long.MAX_VALUE, 1)),
+                () -> assertThrows(ArithmeticException.class, () -> Dinero.restar(Long.MIN_VALUE, 1)),
+                () -> assertThrows(ArithmeticException.class,
+                        () -> Dinero.aUnidades(new BigDecimal("100000000000000000"))));
+    }
+
+    @Test
+    @DisplayName("El saldo de la cuenta conserva el valor al pasar por unidades")
+    void testSaldoCuenta() {
+        Cuenta cuenta = new Cuenta("Elian", new BigDecimal("1000.12345"));
+        cuenta.credito(new BigDecimal("0.00005"));
+        assertEquals(100012350L, cuenta.getSaldoUnidades());
+        assertEquals(0, new BigDecimal("1000.1235").compareTo(cuenta.getSaldo()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.elianfm.junitapp.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+
+class HistorialCuentaTest {
+
+    @Test
+    @DisplayName("Sin activar no hay historial")
+    void testSinHistorial() {
+        Cuenta cuenta = new Cuenta("Elian", new BigDecimal("1000.12345"));
+        cuenta.debito(BigDecimal.TEN);
+
+        assertNull(cuenta.getHistorial());
+    }
+
+    @Test
+    @DisplayName("Débitos, créditos y cambios de saldo quedan como eventos")
+    void testRegistraEventos() {
+        Cuenta cuenta = new Cuenta("Elian", new BigDecimal("1000.12345"));
+        cuenta.activarHistorial();
+
+        cuenta.debito(new BigDecimal("100"));
+        cuenta.credito(new BigDecimal("0.5"));
+        // un débito rechazado no cambia el saldo ni deja evento
+        assertThrows(DineroInsuficienteException.class, () -> cuenta.debito(new BigDecimal("5000")));
+        cuenta.setSaldo(new BigDecimal("10"));
+
+        HistorialCuenta historial = cuenta.getHistorial();
+        assertAll(
+                () -> assertEquals(3, historial.cantidadEventos()),
+                () -> assertEquals(100_012_345L, historial.saldoInicialUnidades()),
+                () -> assertEquals(-10_000_000L, historial.evento(0)),
+                () -> assertEquals(50_000L, historial.evento(1)),
+                () -> assertEquals(-89_062_345L, historial.evento(2)),
+                () -> assertEquals(90_062_345L, historial.saldoEnUnidades(2)),
+                () -> assertEquals(cuenta.getSaldoUnidades(), historial.reproducir()),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> historial.evento(3)));
+    }
+
+    @Test
+    @DisplayName("El saldo en cualquier evento sale de la última instantánea y la cola")
+    void testSaldoEnCualquierEvento() {
+        Cuenta cuenta = new Cuenta("Elian", new BigDecimal("1000"));
+        cuenta.activarHistorial(8);
+        List<Long> saldos = new ArrayList<>();
+        saldos.add(cuenta.getSaldoUnidades());
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 100; i++) {
+            long monto = random.nextLong(1, 10_000_000);
+            if (random.nextBoolean()) {
+                cuenta.creditoUnidades(monto);
+            } else if (!cuenta.intentarDebitoUnidades(monto).aplicado()) {
+                continue;
+            }
+            saldos.add(cuenta.getSaldoUnidades());
+        }
+
+        HistorialCuenta historial = cuenta.getHistorial();
+        assertEquals(saldos.size() - 1, historial.cantidadEventos());
+        for (int e = 0; e < saldos.size(); e++) {
+            assertEquals(saldos.get(e), historial.saldoEnUnidades(e), "Evento " + e);
+        }
+    }
+
+    @Test
+    @DisplayName("Reproducir un millón de eventos tarda milisegundos")
+    void testReproducirUnMillonDeEventos() {
+        Cuenta cuenta = new Cuenta("Elian", new BigDecimal("1000"));
+        cuenta.activarHistorial();
+        for (int i = 0; i < 500_000; i++) {
+            cuenta.creditoUnidades(3);
+            cuenta.debitoUnidades(2);
+        }
+
+        HistorialCuenta historial = cuenta.getHistorial();
+        long saldo = assertTimeout(Duration.ofMillis(500), historial::reproducir);
+
+        assertAll(
+                () -> assertEquals(1_000_000, historial.cantidadEventos()),
+                () -> assertEquals(cuenta.getSaldoUnidades(), saldo),
+                () -> assertEquals(100_000_000L + 500_000, saldo));
+    }
+
+    @Test
+    @DisplayName("Con transferencias concurrentes el historial coincide con el saldo")
+    void testTransferenciasConcurrentes() throws InterruptedException {
+        Banco banco = new Banco("Banco de la nación");
+        List<Cuenta> cuentas = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Cuenta cuenta = new Cuenta("Cuenta " + i, new BigDecimal("1000"));
+            cuenta.activarHistorial(64);
+            cuentas.add(cuenta);
+            banco.addCuenta(cuenta);
+        }
+
+        BancoTest.enParalelo(4, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 10_000; i++) {
+                try {
+                    banco.transferir(cuentas.get(random.nextInt(cuentas.size())),
+                            cuentas.get(random.nextInt(cuentas.size())), new BigDecimal(random.nextInt(1, 300)));
+                } catch (DineroInsuficienteException e) {
+                    // esperado
+                }
+            }
+        });
+
+        for (Cuenta cuenta : cuentas) {
+            HistorialCuenta historial = cuenta.getHistorial();
+            assertEquals(cuenta.getSaldoUnidades(), historial.reproducir());
+            assertEquals(cuenta.getSaldoUnidades(), historial.saldoEnUnidades(historial.cantidadEventos()));
+        }
+    }
+}
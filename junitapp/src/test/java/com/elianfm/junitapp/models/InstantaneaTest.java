@@ -0,0 +1,156 @@
+package com.elianfm.junitapp.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+
+class InstantaneaTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Guardar y cargar un banco conserva nombre, ids, personas, saldos y orden")
+    void testIdaYVuelta() throws IOException {
+        Banco banco = new Banco("Banco de la nación");
+        banco.addCuenta(new Cuenta("Elian", new BigDecimal("1000.12345")));
+        banco.addCuenta(new Cuenta("Andres", new BigDecimal("3000")));
+        banco.addCuenta(new Cuenta("José Ñandú", BigDecimal.ZERO));
+        banco.addCuenta(new Cuenta());
+
+        Path archivo = directorio.resolve("banco.bin");
+        Instantanea.guardar(banco, archivo);
+        Banco cargado = Instantanea.cargar(archivo);
+
+        assertEquals("Banco de la nación", cargado.getNombre());
+        assertEquals(banco.cantidadCuentas(), cargado.cantidadCuentas());
+        Iterator<Cuenta> cargadas = cargado.getCuentas().iterator();
+        for (Cuenta original : banco.getCuentas()) {
+            Cuenta copia = cargadas.next();
+            assertAll(
+                    () -> assertEquals(original.getId(), copia.getId()),
+                    () -> assertEquals(original.getPersona(), copia.getPersona()),
+                    () -> assertEquals(original.getSaldoUnidades(), copia.getSaldoUnidades()),
+                    () -> assertSame(cargado, copia.getBanco()));
+        }
+    }
+
+    @Test
+    @DisplayName("Guardar sobre una instantánea la reemplaza entera sin dejar archivos temporales")
+    void testReemplazar() throws IOException {
+        Path archivo = directorio.resolve("banco.bin");
+        Banco grande = new Banco("Grande");
+        for (int i = 0; i < 1_000; i++) {
+            grande.addCuenta(new Cuenta("Cuenta " + i, BigDecimal.TEN));
+        }
+        Instantanea.guardar(grande, archivo);
+        Banco chico = new Banco("Chico");
+        chico.addCuenta(new Cuenta("Elian", BigDecimal.ONE));
+
+        Instantanea.guardar(chico, archivo);
+
+        Banco cargado = Instantanea.cargar(archivo);
+        assertAll(
+                () -> assertEquals("Chico", cargado.getNombre()),
+                () -> assertEquals(1, cargado.cantidadCuentas()),
+                () -> {
+                    try (var archivos = Files.list(directorio)) {
+                        assertEquals(List.of(archivo), archivos.toList());
+                    }
+                });
+    }
+
+    @Test
+    @DisplayName("Un banco sin nombre se carga sin nombre y uno con nombre vacío con nombre vacío")
+    void testNombreNulo() throws IOException {
+        Path archivo = directorio.resolve("banco.bin");
+        Instantanea.guardar(new Banco(null), archivo);
+        assertNull(Instantanea.cargar(archivo).getNombre());
+
+        Instantanea.guardar(new Banco(""), archivo);
+        assertEquals("", Instantanea.cargar(archivo).getNombre());
+    }
+
+    @Test
+    @DisplayName("La instantánea tomada con transferencias y altas en curso conserva el total")
+    void testGuardarConTransferencias() throws Exception {
+        Banco banco = new Banco("Banco");
+        for (int i = 0; i < 100; i++) {
+            banco.addCuenta(new Cuenta("Cuenta " + i, new BigDecimal("1000")));
+        }
+        List<Cuenta> cuentas = banco.getCuentas();
+        AtomicBoolean detener = new AtomicBoolean();
+        Thread transferencias = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (!detener.get()) {
+                try {
+                    banco.transferir(cuentas.get(random.nextInt(cuentas.size())),
+                            cuentas.get(random.nextInt(cuentas.size())), BigDecimal.TEN);
+                } catch (DineroInsuficienteException e) {
+                    // se sigue con otra
+                }
+                Cuenta temporal = new Cuenta("Temporal", BigDecimal.ZERO);
+                banco.addCuenta(temporal);
+                banco.removeCuenta(temporal);
+            }
+        });
+        transferencias.start();
+        try {
+            Path archivo = directorio.resolve("banco.bin");
+            for (int i = 0; i < 20; i++) {
+                Instantanea.guardar(banco, archivo);
+                assertEquals(0, new BigDecimal("100000").compareTo(Instantanea.cargar(archivo).totalSaldos()));
+            }
+        } finally {
+            detener.set(true);
+            transferencias.join();
+        }
+    }
+
+    @Test
+    @DisplayName("Restaurar muchas cuentas es rápido")
+    void testMuchasCuentas() throws IOException {
+        Banco banco = new Banco("Banco grande");
+        for (int i = 0; i < 200_000; i++) {
+            banco.addCuenta(new Cuenta("Cuenta " + i, new BigDecimal(i)));
+        }
+        Path archivo = directorio.resolve("grande.bin");
+
+        Banco cargado = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            Instantanea.guardar(banco, archivo);
+            return Instantanea.cargar(archivo);
+        });
+
+        assertEquals(200_000, cargado.cantidadCuentas());
+        assertEquals(0, new BigDecimal(199_999)
+                .compareTo(cargado.buscarPorPersona("Cuenta 199999").orElseThrow().getSaldo()));
+    }
+
+    @Test
+    @DisplayName("Un archivo con otra versión o que no es una instantánea se rechaza")
+    void testVersionNoSoportada() throws IOException {
+        Path otraVersion = directorio.resolve("version99.bin");
+        Files.write(otraVersion, ByteBuffer.allocate(6).putInt(Instantanea.MAGICO).putShort((short) 99).array());
+        Path noEsInstantanea = directorio.resolve("texto.bin");
+        Files.writeString(noEsInstantanea, "100,900");
+
+        assertAll(
+                () -> assertThrows(IOException.class, () -> Instantanea.cargar(otraVersion)),
+                () -> assertThrows(IOException.class, () -> Instantanea.cargar(noEsInstantanea)));
+    }
+}
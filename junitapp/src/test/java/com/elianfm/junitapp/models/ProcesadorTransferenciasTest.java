@@ -0,0 +1,156 @@
+package com.elianfm.junitapp.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.elianfm.junitapp.exceptions.DineroInsuficienteException;
+
+class ProcesadorTransferenciasTest {
+
+    Banco banco;
+    List<Cuenta> cuentas;
+
+    @BeforeEach
+    void initBanco() {
+        banco = new Banco("Banco de la nación");
+        cuentas = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Cuenta cuenta = new Cuenta("Cuenta " + i, new BigDecimal("1000.12345"));
+            cuentas.add(cuenta);
+            banco.addCuenta(cuenta);
+        }
+    }
+
+    @Test
+    @DisplayName("Transfiere y completa el futuro, también entre particiones distintas")
+    void testTransferirCompletaElFuturo() throws Exception {
+        try (ProcesadorTransferencias procesador = new ProcesadorTransferencias(banco, 4, 8)) {
+            CompletableFuture<Void> misma = procesador.transferir(cuentas.get(0), cuentas.get(4), new BigDecimal("100"));
+            CompletableFuture<Void> otra = procesador.transferir(cuentas.get(1), cuentas.get(2), new BigDecimal("0.12345"));
+            CompletableFuture.allOf(misma, otra).get(5, TimeUnit.SECONDS);
+        }
+
+        assertAll(
+                () -> BancoTest.assertSaldo("900.12345", cuentas.get(0)),
+                () -> BancoTest.assertSaldo("1100.12345", cuentas.get(4)),
+                () -> BancoTest.assertSaldo("1000", cuentas.get(1)),
+                () -> BancoTest.assertSaldo("1000.24690", cuentas.get(2)));
+    }
+
+    @Test
+    @DisplayName("Sin saldo suficiente el futuro falla y los saldos no cambian")
+    void testDineroInsuficiente() {
+        try (ProcesadorTransferencias procesador = new ProcesadorTransferencias(banco, 2, 8)) {
+            CompletableFuture<Void> futuro = procesador.transferir(cuentas.get(0), cuentas.get(1), new BigDecimal("5000"));
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> futuro.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(DineroInsuficienteException.class, e.getCause());
+        }
+        BancoTest.assertSaldo("1000.12345", cuentas.get(0));
+        BancoTest.assertSaldo("1000.12345", cuentas.get(1));
+    }
+
+    @Test
+    @DisplayName("Muchos productores con anillos chicos conservan el dinero")
+    void testVariosProductoresConservanElDinero() throws InterruptedException {
+        BigDecimal totalInicial = BancoTest.total(cuentas);
+        AtomicLong exitosas = new AtomicLong();
+        AtomicLong rechazadas = new AtomicLong();
+
+        // anillos de 4 posiciones para que los productores y los créditos entre
+        // particiones tengan que esperar lugar
+        ProcesadorTransferencias procesador = new ProcesadorTransferencias(banco, 3, 4);
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            BancoTest.enParalelo(4, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    procesador.transferirUnidades(cuentas.get(random.nextInt(cuentas.size())),
+                            cuentas.get(random.nextInt(cuentas.size())), random.nextLong(1, 50_000_000), error -> {
+                                if (error == null) {
+                                    exitosas.incrementAndGet();
+                                } else {
+                                    rechazadas.incrementAndGet();
+                                }
+                            });
+                }
+            });
+            procesador.close();
+        });
+
+        assertAll(
+                () -> assertEquals(80_000, exitosas.get() + rechazadas.get()),
+                () -> assertEquals(0, totalInicial.compareTo(BancoTest.total(cuentas))),
+                () -> assertTrue(cuentas.stream().allMatch(c -> c.getSaldoUnidades() >= 0)));
+    }
+
+    @Test
+    @DisplayName("Las transferencias con el mismo origen se aplican en orden")
+    void testMismoOrigenEnOrden() throws Exception {
+        Cuenta origen = cuentas.get(0);
+        List<CompletableFuture<Void>> futuros = new ArrayList<>();
+        try (ProcesadorTransferencias procesador = new ProcesadorTransferencias(banco, 4, 16)) {
+            // las diez primeras vacían la cuenta, la última tiene que fallar
+            for (int i = 0; i < 9; i++) {
+                futuros.add(procesador.transferir(origen, cuentas.get(1 + i), new BigDecimal("100")));
+            }
+            futuros.add(procesador.transferir(origen, cuentas.get(10), new BigDecimal("100.12345")));
+            futuros.add(procesador.transferir(origen, cuentas.get(11), new BigDecimal("0.00001")));
+            CompletableFuture.allOf(futuros.subList(0, 10).toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        }
+
+        assertAll(
+                () -> assertEquals(0, origen.getSaldoUnidades()),
+                () -> assertTrue(futuros.get(10).isCompletedExceptionally()));
+    }
+
+    @Test
+    @DisplayName("Un crédito que desbordaría rechaza la transferencia sin detener el procesador")
+    void testDesborde() {
+        Cuenta llena = new Cuenta("Llena", Long.MAX_VALUE - 10);
+        ProcesadorTransferencias procesador = new ProcesadorTransferencias(banco, 4, 8);
+        // desde una cuenta de la misma partición y desde una de otra
+        Cuenta mismaParticion = cuentas.stream().filter(c -> c.getId() % 4 == llena.getId() % 4).findFirst().orElseThrow();
+        Cuenta otraParticion = cuentas.stream().filter(c -> c.getId() % 4 != llena.getId() % 4).findFirst().orElseThrow();
+        CompletableFuture<Void> misma = procesador.transferir(mismaParticion, llena, BigDecimal.ONE);
+        CompletableFuture<Void> otra = procesador.transferir(otraParticion, llena, BigDecimal.ONE);
+
+        for (CompletableFuture<Void> futuro : List.of(misma, otra)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> futuro.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ArithmeticException.class, e.getCause());
+        }
+        assertTimeoutPreemptively(Duration.ofSeconds(5), procesador::close);
+        assertAll(
+                () -> assertEquals(Long.MAX_VALUE - 10, llena.getSaldoUnidades()),
+                () -> BancoTest.assertSaldo("1000.12345", mismaParticion),
+                () -> BancoTest.assertSaldo("1000.12345", otraParticion));
+    }
+
+    @Test
+    @DisplayName("Un procesador cerrado no acepta transferencias")
+    void testCerrado() {
+        ProcesadorTransferencias procesador = new ProcesadorTransferencias(banco, 1, 2);
+        procesador.close();
+
+        assertThrows(IllegalStateException.class,
+                () -> procesador.transferir(cuentas.get(0), cuentas.get(1), BigDecimal.ONE));
+    }
+
+    @Test
+    @DisplayName("La capacidad del anillo debe ser una potencia de 2")
+    void testCapacidadInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> new ProcesadorTransferencias(banco, 1, 6));
+    }
+}